@@ -0,0 +1,85 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class AsyncReadBenchmark {
+    private static final List<String> CATEGORIES = List.of(PlanGenerator.CATEGORIES);
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private AsyncDatabaseManager async;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new BenchmarkDatabase("async", catalogSize);
+        DatabaseManager.savePlan(database.getConnection(), database.getGenerator().week(database.getMeals()));
+        async = new AsyncDatabaseManager(DatabaseManager.getDataSource());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        async.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Map<String, List<Meal>> categoriesSequential() throws SQLException {
+        Map<String, List<Meal>> meals = new HashMap<>();
+        try (Connection connection = DatabaseManager.getConnection()) {
+            for (String category : CATEGORIES) {
+                meals.put(category, DatabaseManager.getMealsByCategory(connection, category));
+            }
+        }
+        return meals;
+    }
+
+    @Benchmark
+    public Map<String, List<Meal>> categoriesPipelined() throws SQLException {
+        return AsyncDatabaseManager.await(async.getMealsByCategories(CATEGORIES));
+    }
+
+    @Benchmark
+    public Map<String, String> weekSequential() throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        try (Connection connection = DatabaseManager.getConnection()) {
+            for (String day : PlanGenerator.DAYS) {
+                for (String category : CATEGORIES) {
+                    options.put(day + category, DatabaseManager.getMealOptionForDay(connection, day, category));
+                }
+            }
+        }
+        return options;
+    }
+
+    @Benchmark
+    public Map<String, String> weekPipelined() throws SQLException {
+        return AsyncDatabaseManager.await(async.getMealOptionsForWeek());
+    }
+}
@@ -0,0 +1,48 @@
+package mealplanner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class BenchmarkDatabase implements AutoCloseable {
+    private static final int DISTINCT_INGREDIENTS = 2_000;
+
+    private final ConnectionPool pool;
+    private final CatalogGenerator generator;
+    private final Connection connection;
+    private final List<Meal> meals;
+
+    public BenchmarkDatabase(String name, int catalogSize) throws SQLException {
+        this.pool = new ConnectionPool(DatabaseConfig.embedded(name + "_" + System.nanoTime()));
+        DatabaseManager.setDataSource(pool);
+        DatabaseManager.createTables();
+
+        this.generator = new CatalogGenerator(42, DISTINCT_INGREDIENTS);
+        this.connection = pool.getConnection();
+        DatabaseManager.addMeals(connection, generator.meals(catalogSize));
+        this.meals = DatabaseManager.getMeals(connection);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public CatalogGenerator getGenerator() {
+        return generator;
+    }
+
+    public List<Meal> getMeals() {
+        return meals;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Connection ignored = connection; Statement statement = connection.createStatement()) {
+            DatabaseManager.setDataSource(null);
+            statement.execute("SHUTDOWN");
+        } finally {
+            pool.close();
+        }
+    }
+}
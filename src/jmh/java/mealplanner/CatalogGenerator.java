@@ -0,0 +1,67 @@
+package mealplanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CatalogGenerator {
+    private static final String[] CATEGORIES = {"breakfast", "lunch", "dinner"};
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final Random random;
+    private final String[] ingredientNames;
+
+    public CatalogGenerator(long seed, int distinctIngredients) {
+        this.random = new Random(seed);
+        this.ingredientNames = new String[distinctIngredients];
+        for (int i = 0; i < distinctIngredients; i++) {
+            ingredientNames[i] = "ingredient " + letters(i);
+        }
+    }
+
+    public List<Meal> meals(int count) {
+        List<Meal> meals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            meals.add(meal(i));
+        }
+        return meals;
+    }
+
+    public Meal meal(int index) {
+        String[] ingredients = new String[3 + random.nextInt(6)];
+        for (int i = 0; i < ingredients.length; i++) {
+            ingredients[i] = ingredientNames[random.nextInt(ingredientNames.length)];
+        }
+        return new Meal("meal " + letters(index), CATEGORIES[index % CATEGORIES.length], ingredients);
+    }
+
+    public List<Plan> week(List<Meal> catalog) {
+        List<Plan> plans = new ArrayList<>();
+        for (String day : DAYS) {
+            for (String category : CATEGORIES) {
+                Meal meal = pick(catalog, category);
+                plans.add(new Plan(meal.getName(), category, meal.getId(), day));
+            }
+        }
+        return plans;
+    }
+
+    private Meal pick(List<Meal> catalog, String category) {
+        while (true) {
+            Meal meal = catalog.get(random.nextInt(catalog.size()));
+            if (meal.getCategory().equals(category)) {
+                return meal;
+            }
+        }
+    }
+
+    private static String letters(int value) {
+        StringBuilder builder = new StringBuilder();
+        do {
+            builder.append(LETTERS.charAt(value % LETTERS.length()));
+            value /= LETTERS.length();
+        } while (value > 0);
+        return builder.reverse().toString();
+    }
+}
@@ -0,0 +1,62 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DatabaseReadBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new BenchmarkDatabase("read", catalogSize);
+        DatabaseManager.savePlan(database.getConnection(), database.getGenerator().week(database.getMeals()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Meal> getMeals() throws SQLException {
+        return DatabaseManager.getMeals(database.getConnection());
+    }
+
+    @Benchmark
+    public List<Meal> getMealsByCategory() throws SQLException {
+        return DatabaseManager.getMealsByCategory(database.getConnection(), "dinner");
+    }
+
+    @Benchmark
+    public void getShoppingListForWeek() throws SQLException {
+        PrintWriter printWriter = new PrintWriter(Writer.nullWriter());
+        DatabaseManager.getShoppingListForWeek(database.getConnection(), printWriter);
+    }
+}
@@ -0,0 +1,59 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DatabaseWriteBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private List<Plan> week;
+    private int nextMeal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new BenchmarkDatabase("write", catalogSize);
+        week = database.getGenerator().week(database.getMeals());
+        nextMeal = catalogSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public int addMeal() throws SQLException {
+        Meal meal = database.getGenerator().meal(nextMeal++);
+        return DatabaseManager.addMeal(database.getConnection(), meal.getCategory(), meal.getName(),
+                meal.getIngredients());
+    }
+
+    @Benchmark
+    public void savePlan() throws SQLException {
+        DatabaseManager.savePlan(database.getConnection(), week);
+    }
+}
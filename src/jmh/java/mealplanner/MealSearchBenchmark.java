@@ -0,0 +1,64 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MealSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private MealSearchIndex index;
+    private MealQuery containsExcludes;
+    private MealQuery prefix;
+    private MealQuery fuzzy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Meal> meals = new ArrayList<>(catalogSize);
+        int id = 1;
+        for (Meal meal : new CatalogGenerator(42, 500).meals(catalogSize)) {
+            meals.add(new Meal(id++, meal.getName(), meal.getCategory(), meal.getIngredients()));
+        }
+        index = MealSearchIndex.build(meals, IngredientDictionary.shared());
+        containsExcludes = new MealQuery().setCategory("dinner").contains("ingredient b").excludes("ingredient c")
+                .setLimit(50);
+        prefix = new MealQuery().setNamePrefix("meal ab").setLimit(50);
+        fuzzy = new MealQuery().setFuzzyName("meal abcd").setMaxEditDistance(1).setLimit(50);
+    }
+
+    @Benchmark
+    public List<Meal> containsExcludes() {
+        return index.search(containsExcludes);
+    }
+
+    @Benchmark
+    public List<Meal> namePrefix() {
+        return index.search(prefix);
+    }
+
+    @Benchmark
+    public List<Meal> fuzzyName() {
+        return index.search(fuzzy);
+    }
+}
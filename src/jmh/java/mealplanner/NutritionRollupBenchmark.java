@@ -0,0 +1,88 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class NutritionRollupBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int DISTINCT_INGREDIENTS = 2_000;
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Param({"1000", "10000"})
+    public int households;
+
+    private List<Meal> meals;
+    private NutritionTable nutrition;
+    private MealNutrition mealNutrition;
+    private Map<Integer, List<Plan>> plans;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IngredientDictionary dictionary = IngredientDictionary.shared();
+        CatalogGenerator generator = new CatalogGenerator(42, DISTINCT_INGREDIENTS);
+        meals = new ArrayList<>(CATALOG_SIZE);
+        for (Meal meal : generator.meals(CATALOG_SIZE)) {
+            meals.add(new Meal(meals.size() + 1, meal.getName(), meal.getCategory(), meal.getIngredientIds(),
+                    dictionary));
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        nutrition = new NutritionTable(dictionary);
+        double[] values = new double[Nutrient.values().length];
+        for (int ingredientId = 0; ingredientId < dictionary.size(); ingredientId++) {
+            for (int nutrient = 0; nutrient < values.length; nutrient++) {
+                values[nutrient] = random.nextDouble(10);
+            }
+            nutrition.put(ingredientId, Unit.Dimension.COUNT, values);
+        }
+        mealNutrition = nutrition.compile(meals);
+
+        String[] categories = PlanGenerator.CATEGORIES;
+        plans = new HashMap<>();
+        for (int household = 0; household < households; household++) {
+            List<Plan> householdPlans = new ArrayList<>();
+            for (LocalDate date = FROM; !date.isAfter(TO); date = date.plusDays(1)) {
+                for (int category = 0; category < categories.length; category++) {
+                    Meal meal = meals.get(random.nextInt(CATALOG_SIZE / 3) * 3 + category);
+                    householdPlans.add(new Plan(household, date, meal.getName(), categories[category], meal.getId()));
+                }
+            }
+            plans.put(household, householdPlans);
+        }
+    }
+
+    @Benchmark
+    public MealNutrition compileCatalog() {
+        return nutrition.compile(meals);
+    }
+
+    @Benchmark
+    public NutritionRollup yearRollup() {
+        return mealNutrition.rollup(plans, FROM, TO);
+    }
+}
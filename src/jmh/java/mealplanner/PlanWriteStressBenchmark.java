@@ -0,0 +1,120 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PlanWriteStressBenchmark {
+    private static final int DAYS_PER_INVOCATION = 512;
+    private static final int HOUSEHOLDS = 32;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final String[] CATEGORIES = {"breakfast", "lunch", "dinner"};
+
+    @Param({"1", "16", "256"})
+    public int planners;
+
+    private BenchmarkDatabase database;
+    private DataSource dataSource;
+    private ExecutorService executor;
+    private final AtomicLong slotWrites = new AtomicLong();
+    private final AtomicLong seeds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new BenchmarkDatabase("stress", 300);
+        dataSource = DatabaseManager.getDataSource();
+        executor = VirtualThreads.newExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        executor.shutdown();
+        try {
+            verifyConsistency();
+        } finally {
+            database.close();
+        }
+    }
+
+    @Benchmark
+    public void concurrentPlanners() throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>(planners);
+        for (int planner = 0; planner < planners; planner++) {
+            int days = DAYS_PER_INVOCATION / planners + (planner < DAYS_PER_INVOCATION % planners ? 1 : 0);
+            long seed = seeds.incrementAndGet();
+            futures.add(executor.submit(() -> planDays(days, new SplittableRandom(seed))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private Void planDays(int days, SplittableRandom random) throws SQLException {
+        List<Meal> meals = database.getMeals();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int day = 0; day < days; day++) {
+                int householdId = random.nextInt(HOUSEHOLDS);
+                LocalDate date = FIRST_DAY.plusDays(random.nextInt(7));
+                List<Plan> plans = new ArrayList<>(CATEGORIES.length);
+                for (String category : CATEGORIES) {
+                    Meal meal = meals.get(random.nextInt(meals.size()));
+                    plans.add(new Plan(householdId, date, meal.getName(), category, meal.getId()));
+                }
+                DatabaseManager.savePlan(connection, plans);
+                slotWrites.addAndGet(plans.size());
+            }
+        }
+        return null;
+    }
+
+    private void verifyConsistency() throws SQLException {
+        String consistencySQL = "SELECT COUNT(*) AS total_rows, SUM(version + 1) AS applied_writes, " +
+                "(SELECT COUNT(*) FROM (SELECT DISTINCT household_id, meal_date, meal_category FROM plan) slots) " +
+                "AS distinct_slots FROM plan";
+        try (Statement statement = database.getConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery(consistencySQL)) {
+            resultSet.next();
+            long rows = resultSet.getLong("total_rows");
+            long distinctSlots = resultSet.getLong("distinct_slots");
+            long appliedWrites = resultSet.getLong("applied_writes");
+            if (rows != distinctSlots) {
+                throw new IllegalStateException("Duplicate plan rows: " + rows + " rows for " + distinctSlots + " slots");
+            }
+            if (appliedWrites != slotWrites.get()) {
+                throw new IllegalStateException("Lost updates: " + slotWrites.get() + " slot writes committed but " +
+                        appliedWrites + " recorded by plan versions");
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package mealplanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+    private static final int HOUSEHOLD = 1;
+    private static final int FAVORITES = 40;
+    private static final LocalDate TODAY = LocalDate.of(2024, 12, 31);
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private List<Meal> dinners;
+    private List<Plan> history;
+    private MealRecommendations recommendations;
+    private int day;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Meal> meals = new CatalogGenerator(42, 2_000).meals(catalogSize);
+        dinners = new ArrayList<>();
+        for (int i = 0; i < meals.size(); i++) {
+            Meal meal = meals.get(i);
+            if (meal.getCategory().equals("dinner")) {
+                dinners.add(new Meal(i + 1, meal.getName(), meal.getCategory(), meal.getIngredientIds(),
+                        meal.getDictionary()));
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        history = new ArrayList<>();
+        for (LocalDate date = TODAY.minusDays(364); !date.isAfter(TODAY); date = date.plusDays(1)) {
+            Meal meal = dinners.get(random.nextInt(10) < 8 ? random.nextInt(FAVORITES) : random.nextInt(dinners.size()));
+            history.add(new Plan(HOUSEHOLD, date, meal.getName(), "dinner", meal.getId()));
+        }
+        recommendations = new MealRecommendations(1_024, 64, 28);
+        recommendations.materialize(HOUSEHOLD, TODAY, history);
+    }
+
+    @Benchmark
+    public int[] cachedSuggestions() {
+        return recommendations.ranked(HOUSEHOLD, "dinner", 10);
+    }
+
+    @Benchmark
+    public List<Meal> cachedOrdering() {
+        return recommendations.order(HOUSEHOLD, "dinner", dinners);
+    }
+
+    @Benchmark
+    public int[] rebuildFromHistory() {
+        MealRecommendations rebuilt = new MealRecommendations(1, 64, 28);
+        rebuilt.materialize(HOUSEHOLD, TODAY, history);
+        return rebuilt.ranked(HOUSEHOLD, "dinner", 10);
+    }
+
+    @Benchmark
+    public int[] incrementalUpdate() {
+        Meal meal = dinners.get(day++ % FAVORITES);
+        recommendations.planChanged(null, new Plan(HOUSEHOLD, TODAY, meal.getName(), "dinner", meal.getId()));
+        return recommendations.ranked(HOUSEHOLD, "dinner", 10);
+    }
+}
@@ -0,0 +1,149 @@
+package mealplanner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+public class AsyncDatabaseManager implements AutoCloseable {
+    private final DataSource dataSource;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    public AsyncDatabaseManager(DataSource dataSource) {
+        this(dataSource, VirtualThreads.newExecutor(), true);
+    }
+
+    public AsyncDatabaseManager(DataSource dataSource, ExecutorService executor) {
+        this(dataSource, executor, false);
+    }
+
+    private AsyncDatabaseManager(DataSource dataSource, ExecutorService executor, boolean ownsExecutor) {
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public <T> CompletableFuture<T> submit(SqlFunction<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return work.apply(connection);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<List<Meal>> getMeals() {
+        return submit(DatabaseManager::getMeals);
+    }
+
+    public CompletableFuture<List<Meal>> getMealsByCategory(String category) {
+        return submit(connection -> DatabaseManager.getMealsByCategory(connection, category));
+    }
+
+    public CompletableFuture<Map<String, List<Meal>>> getMealsByCategories(Collection<String> categories) {
+        Map<String, CompletableFuture<List<Meal>>> futures = new LinkedHashMap<>();
+        for (String category : categories) {
+            futures.computeIfAbsent(category, this::getMealsByCategory);
+        }
+        return allOf(futures);
+    }
+
+    public CompletableFuture<Integer> getMealIdByName(String mealName) {
+        return submit(connection -> DatabaseManager.getMealIdByName(connection, mealName));
+    }
+
+    public CompletableFuture<Map<String, Integer>> getMealIdsByName(Collection<String> mealNames) {
+        Map<String, CompletableFuture<Integer>> futures = new LinkedHashMap<>();
+        for (String mealName : mealNames) {
+            futures.computeIfAbsent(mealName, this::getMealIdByName);
+        }
+        return allOf(futures);
+    }
+
+    public CompletableFuture<String> getMealOptionForDay(String day, String mealCategory) {
+        return submit(connection -> DatabaseManager.getMealOptionForDay(connection, day, mealCategory));
+    }
+
+    public CompletableFuture<Map<String, String>> getMealOptionsForWeek() {
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        for (String day : PlanGenerator.DAYS) {
+            for (String category : PlanGenerator.CATEGORIES) {
+                futures.put(day + category, getMealOptionForDay(day, category));
+            }
+        }
+        return allOf(futures);
+    }
+
+    public CompletableFuture<List<Plan>> getPlans(int householdId, LocalDate from, LocalDate to) {
+        return submit(connection -> DatabaseManager.getPlans(connection, householdId, from, to));
+    }
+
+    public CompletableFuture<Boolean> isPlanSaved() {
+        return submit(DatabaseManager::isPlanSaved);
+    }
+
+    public CompletableFuture<Integer> addMeal(String category, String mealName, String[] ingredients) {
+        return submit(connection -> DatabaseManager.addMeal(connection, category, mealName, ingredients));
+    }
+
+    public CompletableFuture<Void> savePlan(List<Plan> plans) {
+        return submit(connection -> {
+            DatabaseManager.savePlan(connection, plans);
+            return null;
+        });
+    }
+
+    public static <K, V> CompletableFuture<Map<K, V>> allOf(Map<K, CompletableFuture<V>> futures) {
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    Map<K, V> results = new LinkedHashMap<>();
+                    for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+                        results.put(entry.getKey(), entry.getValue().join());
+                    }
+                    return results;
+                });
+    }
+
+    public static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+}
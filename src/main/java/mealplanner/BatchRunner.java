@@ -0,0 +1,79 @@
+package mealplanner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BatchRunner {
+    private final CommandDispatcher dispatcher;
+    private final PrintStream out;
+
+    public BatchRunner(CommandDispatcher dispatcher, PrintStream out) {
+        this.dispatcher = dispatcher;
+        this.out = out;
+    }
+
+    public boolean run(String[] args) throws IOException, InterruptedException {
+        switch (args[0]) {
+            case "--batch":
+                if (args.length < 2 || args[1].equals("-")) {
+                    return runCommands(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                }
+                try (Reader reader = Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+                    return runCommands(reader);
+                }
+            case "--serve":
+                int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+                String host = System.getProperty("mealplanner.server.host");
+                String files = System.getProperty("mealplanner.server.files");
+                try (MealServer server = new MealServer(
+                        host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host), port,
+                        dispatcher.withFileRoot(files == null ? null : Path.of(files)))) {
+                    server.start();
+                    out.println("Listening on port " + server.getPort());
+                    Thread.currentThread().join();
+                }
+                return true;
+            default:
+                String response = dispatcher.dispatch(toRequest(args));
+                out.println(response);
+                return response.startsWith("{\"ok\": true");
+        }
+    }
+
+    public boolean runCommands(Reader reader) throws IOException {
+        boolean allSucceeded = true;
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String response = dispatcher.dispatch(line);
+            allSucceeded &= response.startsWith("{\"ok\": true");
+            out.println(response);
+        }
+        return allSucceeded;
+    }
+
+    static Map<String, Object> toRequest(String[] args) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("command", args[0]);
+        for (int i = 1; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + args[i]);
+            }
+            request.put(args[i].substring(0, separator), args[i].substring(separator + 1));
+        }
+        return request;
+    }
+}
@@ -0,0 +1,145 @@
+package mealplanner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public enum CatalogFormat {
+    CSV {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("category,name,ingredients\r\n");
+        }
+
+        @Override
+        public void write(Writer writer, Meal meal) throws IOException {
+            StringBuilder ingredients = new StringBuilder();
+            for (int i = 0; i < meal.getIngredientIds().length; i++) {
+                if (i > 0) {
+                    ingredients.append(';');
+                }
+                ingredients.append(meal.describeIngredient(i));
+            }
+            writer.write(csvField(meal.getCategory()));
+            writer.write(',');
+            writer.write(csvField(meal.getName()));
+            writer.write(',');
+            writer.write(csvField(ingredients.toString()));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public Meal parse(String line) {
+            List<String> fields = csvFields(line);
+            if (fields.size() != 3) {
+                throw new IllegalArgumentException("Expected category,name,ingredients but got: " + line);
+            }
+            if (fields.get(0).equals("category") && fields.get(1).equals("name")) {
+                return null;
+            }
+            return toMeal(fields.get(0), fields.get(1), fields.get(2).split(";"));
+        }
+    },
+    NDJSON {
+        @Override
+        public void write(Writer writer, Meal meal) throws IOException {
+            writer.write("{\"category\": ");
+            writer.write(Json.quote(meal.getCategory()));
+            writer.write(", \"name\": ");
+            writer.write(Json.quote(meal.getName()));
+            writer.write(", \"ingredients\": [");
+            for (int i = 0; i < meal.getIngredientIds().length; i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write(Json.quote(meal.describeIngredient(i)));
+            }
+            writer.write("]}\n");
+        }
+
+        @Override
+        public Meal parse(String line) {
+            Map<String, Object> record = Json.parseObject(line);
+            Object ingredients = record.get("ingredients");
+            if (!(ingredients instanceof List)) {
+                throw new IllegalArgumentException("Expected an ingredients array but got: " + line);
+            }
+            List<?> list = (List<?>) ingredients;
+            String[] values = new String[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = String.valueOf(list.get(i));
+            }
+            return toMeal(String.valueOf(record.get("category")), String.valueOf(record.get("name")), values);
+        }
+    };
+
+    public void writeHeader(Writer writer) throws IOException {
+    }
+
+    public abstract void write(Writer writer, Meal meal) throws IOException;
+
+    public abstract Meal parse(String line);
+
+    public static CatalogFormat forFileName(String filename) {
+        String lowerCaseName = filename.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lowerCaseName.endsWith(".ndjson") || lowerCaseName.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported catalog file: " + filename);
+    }
+
+    private static Meal toMeal(String category, String name, String[] ingredients) {
+        if (!MealCommands.isValidCategory(category)) {
+            throw new IllegalArgumentException("Wrong meal category for " + name + ": " + category);
+        }
+        if (!MealCommands.isValidName(name) || !MealCommands.isValidIngredients(ingredients)) {
+            throw new IllegalArgumentException("Wrong format for meal: " + name);
+        }
+        IngredientAmount[] amounts = new IngredientAmount[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            amounts[i] = IngredientAmount.parse(ingredients[i]);
+        }
+        return Meal.fromAmounts(0, name, category, amounts, IngredientDictionary.shared());
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,82 @@
+package mealplanner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CatalogTransfer {
+    private static final int IMPORT_CHUNK_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static int importFile(Connection connection, Path source) throws SQLException, IOException {
+        try (Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            return importMeals(connection, reader, CatalogFormat.forFileName(source.toString()));
+        }
+    }
+
+    public static int importMeals(Connection connection, Reader reader, CatalogFormat format)
+            throws SQLException, IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<Meal> chunk = new ArrayList<>();
+        int imported = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Meal meal;
+            try {
+                meal = format.parse(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            if (meal != null) {
+                chunk.add(meal);
+            }
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                imported += DatabaseManager.importMeals(connection, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += DatabaseManager.importMeals(connection, chunk);
+        }
+        return imported;
+    }
+
+    public static int exportFile(List<Meal> meals, Path target) throws IOException {
+        CatalogFormat format = CatalogFormat.forFileName(target.toString());
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temporary = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                format.writeHeader(writer);
+                for (Meal meal : meals) {
+                    format.write(writer, meal);
+                }
+                writer.flush();
+                channel.force(false);
+            }
+            ShoppingListExporter.moveIntoPlace(temporary, absoluteTarget);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return meals.size();
+    }
+}
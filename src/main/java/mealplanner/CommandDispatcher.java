@@ -0,0 +1,348 @@
+package mealplanner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+public class CommandDispatcher implements AutoCloseable {
+    private final MealCommands commands;
+    private final boolean restrictFiles;
+    private final Path fileRoot;
+
+    public CommandDispatcher(MealCommands commands) {
+        this(commands, false, null);
+    }
+
+    private CommandDispatcher(MealCommands commands, boolean restrictFiles, Path fileRoot) {
+        this.commands = commands;
+        this.restrictFiles = restrictFiles;
+        this.fileRoot = fileRoot == null ? null : fileRoot.toAbsolutePath().normalize();
+    }
+
+    public CommandDispatcher withFileRoot(Path fileRoot) {
+        return new CommandDispatcher(commands, true, fileRoot);
+    }
+
+    @Override
+    public void close() {
+        commands.close();
+    }
+
+    public String dispatch(String requestJson) {
+        try {
+            return dispatch(Json.parseObject(requestJson));
+        } catch (IllegalArgumentException e) {
+            return error(e.getMessage());
+        } catch (RuntimeException e) {
+            return error(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    public String dispatch(Map<String, Object> request) {
+        try {
+            String command = text(request, "command", null);
+            if (command == null) {
+                return error("Missing command");
+            }
+            switch (command) {
+                case "add":
+                    Meal meal = commands.addMeal(text(request, "category", ""), text(request, "name", ""),
+                            ingredients(request.get("ingredients")));
+                    return "{\"ok\": true, \"meal\": " + mealJson(meal) + "}";
+                case "show":
+                    return "{\"ok\": true, \"meals\": " + mealsJson(commands.getMeals(text(request, "category", ""))) + "}";
+                case "search":
+                    MealQuery query = new MealQuery()
+                            .setCategory(text(request, "category", null))
+                            .setNamePrefix(text(request, "prefix", null))
+                            .setFuzzyName(text(request, "fuzzy", null))
+                            .setMaxEditDistance((int) number(request, "maxDistance", 2))
+                            .setLimit((int) number(request, "limit", Integer.MAX_VALUE));
+                    for (String ingredient : ingredients(request.get("contains"))) {
+                        query.contains(ingredient);
+                    }
+                    for (String ingredient : ingredients(request.get("excludes"))) {
+                        query.excludes(ingredient);
+                    }
+                    return "{\"ok\": true, \"meals\": " + mealsJson(commands.search(query)) + "}";
+                case "suggest":
+                    return "{\"ok\": true, \"meals\": " + mealsJson(commands.suggestMeals(household(request),
+                            text(request, "category", ""), (int) number(request, "limit", 5))) + "}";
+                case "plan":
+                    return plansResponse(commands.planDay(household(request), date(request, "date"),
+                            text(request, "breakfast", null), text(request, "lunch", null),
+                            text(request, "dinner", null)));
+                case "generate":
+                    PlanConstraints constraints = new PlanConstraints()
+                            .setSeed(number(request, "seed", 0))
+                            .setNoRepeatWithinDays((int) number(request, "noRepeatDays", 0));
+                    return plansResponse(commands.generateWeek(household(request), weekStart(request), constraints));
+                case "replace":
+                    Plan plan = commands.replaceSlot(household(request), date(request, "date"),
+                            text(request, "category", ""), text(request, "meal", null));
+                    return plansResponse(List.of(plan));
+                case "remove":
+                    commands.removeSlot(household(request), date(request, "date"), text(request, "category", ""));
+                    return "{\"ok\": true}";
+                case "week":
+                    return plansResponse(commands.getWeek(household(request), weekStart(request)));
+                case "save":
+                    String file = text(request, "file", null);
+                    if (file == null) {
+                        return error("Missing file");
+                    }
+                    commands.saveShoppingList(household(request), weekStart(request), resolveFile(file));
+                    return "{\"ok\": true, \"file\": " + Json.quote(file) + "}";
+                case "import":
+                    return countResponse("imported",
+                            commands.importCatalog(resolveFile(requiredText(request, "file"))));
+                case "export":
+                    return countResponse("exported",
+                            commands.exportCatalog(resolveFile(requiredText(request, "file"))));
+                case "snapshot":
+                    return countResponse("meals", commands.saveSnapshot(resolveFile(requiredText(request, "file"))));
+                case "restore":
+                    return countResponse("meals", commands.loadSnapshot(resolveFile(requiredText(request, "file"))));
+                case "nutrition":
+                    String ingredient = requiredText(request, "ingredient");
+                    Map<Nutrient, Double> values = new EnumMap<>(Nutrient.class);
+                    for (Nutrient nutrient : Nutrient.values()) {
+                        if (request.containsKey(nutrient.getColumn())) {
+                            values.put(nutrient, decimal(request, nutrient.getColumn()));
+                        }
+                    }
+                    commands.setNutrition(ingredient, text(request, "per", null), values);
+                    return "{\"ok\": true, \"ingredient\": " + Json.quote(ingredient) + "}";
+                case "report":
+                    LocalDate from = request.containsKey("from") ? date(request, "from") : weekStart(request);
+                    LocalDate to = request.containsKey("to") ? date(request, "to") : from.plusDays(6);
+                    return reportResponse(commands.nutritionReport(households(request), from, to));
+                case "metrics":
+                    return "{\"ok\": true, \"metrics\": " + Metrics.toJson() + "}";
+                default:
+                    return error("Unknown command: " + command);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return error(e.getMessage());
+        } catch (SQLException | IOException e) {
+            return error(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            return error(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private static String text(Map<String, Object> request, String key, String defaultValue) {
+        Object value = request.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    private static String requiredText(Map<String, Object> request, String key) {
+        String value = text(request, key, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+
+    private Path resolveFile(String file) {
+        if (!restrictFiles) {
+            return Path.of(file);
+        }
+        if (fileRoot == null) {
+            throw new IllegalArgumentException(
+                    "File commands are disabled; set mealplanner.server.files to allow them");
+        }
+        Path path = fileRoot.resolve(file).normalize();
+        if (Path.of(file).isAbsolute() || !path.startsWith(fileRoot) || path.equals(fileRoot)) {
+            throw new IllegalArgumentException("File must be a relative path inside " + fileRoot + ": " + file);
+        }
+        return path;
+    }
+
+    private static String countResponse(String key, int count) {
+        return "{\"ok\": true, " + Json.quote(key) + ": " + count + "}";
+    }
+
+    private static long number(Map<String, Object> request, String key, long defaultValue) {
+        Object value = request.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number for " + key + ": " + value);
+        }
+    }
+
+    private static double decimal(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number for " + key + ": " + value);
+        }
+    }
+
+    private static int[] households(Map<String, Object> request) {
+        Object value = request.get("households");
+        if (value == null) {
+            return new int[]{household(request)};
+        }
+        String[] households = ingredients(value);
+        int[] householdIds = new int[households.length];
+        for (int i = 0; i < households.length; i++) {
+            try {
+                householdIds[i] = (int) Double.parseDouble(households[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a household id: " + households[i]);
+            }
+        }
+        return householdIds;
+    }
+
+    private static int household(Map<String, Object> request) {
+        return (int) number(request, "household", Plan.DEFAULT_HOUSEHOLD);
+    }
+
+    private static LocalDate date(Map<String, Object> request, String key) {
+        String value = text(request, key, null);
+        if (value == null) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Expected a date (yyyy-mm-dd) for " + key + ": " + value);
+        }
+    }
+
+    private static LocalDate weekStart(Map<String, Object> request) {
+        return MealCommands.weekStart(date(request, "weekStart"));
+    }
+
+    private static String[] ingredients(Object value) {
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            String[] ingredients = new String[list.size()];
+            for (int i = 0; i < ingredients.length; i++) {
+                ingredients[i] = String.valueOf(list.get(i));
+            }
+            return ingredients;
+        }
+        return value == null ? new String[0] : value.toString().split(",");
+    }
+
+    private static String plansResponse(List<Plan> plans) {
+        StringBuilder builder = new StringBuilder("{\"ok\": true, \"plans\": [");
+        for (int i = 0; i < plans.size(); i++) {
+            Plan plan = plans.get(i);
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("{\"household\": ").append(plan.getHouseholdId())
+                    .append(", \"date\": ").append(plan.getMealDate() == null ? "null" : Json.quote(plan.getMealDate().toString()))
+                    .append(", \"day\": ").append(Json.quote(plan.getMealDay()))
+                    .append(", \"category\": ").append(Json.quote(plan.getMealCategory()))
+                    .append(", \"meal\": ").append(Json.quote(plan.getMealOption()))
+                    .append(", \"mealId\": ").append(plan.getMealIdMeals())
+                    .append('}');
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static String reportResponse(NutritionRollup report) {
+        Nutrient[] nutrients = Nutrient.values();
+        StringBuilder builder = new StringBuilder("{\"ok\": true, \"report\": {\"from\": ")
+                .append(Json.quote(report.getFrom().toString()))
+                .append(", \"to\": ").append(Json.quote(report.getTo().toString()))
+                .append(", \"plans\": ").append(report.getPlanCount())
+                .append(", \"incompletePlans\": ").append(report.getIncompletePlanCount())
+                .append(", \"totals\": ");
+        appendNutrients(builder.append('{'), nutrients, report::total).append('}');
+
+        builder.append(", \"days\": [");
+        double[][] daily = new double[nutrients.length][];
+        for (Nutrient nutrient : nutrients) {
+            daily[nutrient.ordinal()] = report.daily(nutrient);
+        }
+        for (int day = 0; day < report.getDays(); day++) {
+            int index = day;
+            builder.append(day > 0 ? ", " : "").append("{\"date\": ")
+                    .append(Json.quote(report.getFrom().plusDays(day).toString())).append(", ");
+            appendNutrients(builder, nutrients, nutrient -> daily[nutrient.ordinal()][index]).append('}');
+        }
+
+        builder.append("], \"weeks\": [");
+        double[][] weekly = new double[nutrients.length][];
+        for (Nutrient nutrient : nutrients) {
+            weekly[nutrient.ordinal()] = report.weekly(nutrient);
+        }
+        for (int week = 0; week < weekly[0].length; week++) {
+            int index = week;
+            builder.append(week > 0 ? ", " : "").append("{\"weekStart\": ")
+                    .append(Json.quote(report.weekStart(week).toString())).append(", ");
+            appendNutrients(builder, nutrients, nutrient -> weekly[nutrient.ordinal()][index]).append('}');
+        }
+
+        builder.append("], \"households\": [");
+        int[] householdIds = report.getHouseholdIds();
+        for (int i = 0; i < householdIds.length; i++) {
+            int householdId = householdIds[i];
+            builder.append(i > 0 ? ", " : "").append("{\"household\": ").append(householdId).append(", ");
+            appendNutrients(builder, nutrients, nutrient -> report.household(nutrient, householdId)).append('}');
+        }
+        return builder.append("]}}").toString();
+    }
+
+    private static StringBuilder appendNutrients(StringBuilder builder, Nutrient[] nutrients,
+                                                 ToDoubleFunction<Nutrient> value) {
+        for (int i = 0; i < nutrients.length; i++) {
+            builder.append(i > 0 ? ", " : "").append(Json.quote(nutrients[i].getColumn())).append(": ")
+                    .append(Quantities.format(value.applyAsDouble(nutrients[i])));
+        }
+        return builder;
+    }
+
+    private static String mealsJson(List<Meal> meals) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < meals.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(mealJson(meals.get(i)));
+        }
+        return builder.append(']').toString();
+    }
+
+    private static String mealJson(Meal meal) {
+        StringBuilder builder = new StringBuilder("{\"id\": ").append(meal.getId())
+                .append(", \"name\": ").append(Json.quote(meal.getName()))
+                .append(", \"category\": ").append(Json.quote(meal.getCategory()))
+                .append(", \"ingredients\": [");
+        String[] ingredients = meal.getIngredients();
+        for (int i = 0; i < ingredients.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(Json.quote(ingredients[i]));
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"ok\": false, \"error\": " + Json.quote(String.valueOf(message)) + "}";
+    }
+}
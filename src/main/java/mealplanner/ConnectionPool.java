@@ -0,0 +1,288 @@
+package mealplanner;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements DataSource, ConnectionPoolMBean, AutoCloseable {
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private volatile boolean closed;
+
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxPoolSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000, config.getIdleTimeoutMillis() / 2);
+        evictor.scheduleAtFixedRate(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + config.getAcquireTimeoutMillis() +
+                        " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            Connection physical = takeHealthyConnection();
+            long elapsed = System.nanoTime() - start;
+            acquiredCount.incrementAndGet();
+            acquireNanos.addAndGet(elapsed);
+            acquireLatency.record(elapsed);
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection takeHealthyConnection() throws SQLException {
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            long idleMillis = System.currentTimeMillis() - idle.idleSince;
+            if (idleMillis < config.getValidationIntervalMillis()
+                    || idle.connection.isValid(config.getValidationTimeoutSeconds())) {
+                return idle.connection;
+            }
+            closePhysical(idle.connection);
+        }
+        Connection connection = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+        openConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return connection;
+    }
+
+    private Connection wrap(Connection physical) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                release(physical);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released.get() || physical.isClosed();
+                        case "unwrap":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                            break;
+                        default:
+                            if (released.get()) {
+                                throw new SQLException("Connection has been returned to the pool");
+                            }
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void release(Connection physical) {
+        try {
+            if (closed || physical.isClosed()) {
+                closePhysical(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idleConnections.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            closePhysical(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdleConnections() {
+        long cutoff = System.currentTimeMillis() - config.getIdleTimeoutMillis();
+        Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+        while (iterator.hasNext()) {
+            IdleConnection idle = iterator.next();
+            if (idle.idleSince < cutoff && idleConnections.removeFirstOccurrence(idle)) {
+                evictedCount.incrementAndGet();
+                closePhysical(idle.connection);
+            }
+        }
+    }
+
+    private void closePhysical(Connection connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            closePhysical(idle.connection);
+        }
+    }
+
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return config.getMaxPoolSize() - permits.availablePermits();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @Override
+    public long getAcquiredCount() {
+        return acquiredCount.get();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    @Override
+    public double getAverageAcquireMillis() {
+        long acquired = acquiredCount.get();
+        return acquired == 0 ? 0 : acquireNanos.get() / 1_000_000.0 / acquired;
+    }
+
+    @Override
+    public double getP99AcquireMillis() {
+        return acquireLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxAcquireMillis() {
+        return acquireLatency.getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[open=%d, idle=%d, active=%d, created=%d, acquired=%d, " +
+                        "timeouts=%d, evicted=%d, avgAcquireMs=%.3f]",
+                getOpenConnections(), getIdleConnections(), getActiveConnections(), getCreatedCount(),
+                getAcquiredCount(), getTimeoutCount(), getEvictedCount(), getAverageAcquireMillis());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        config.setAcquireTimeoutMillis(seconds * 1000L);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) (config.getAcquireTimeoutMillis() / 1000);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package mealplanner;
+
+public interface ConnectionPoolMBean {
+
+    int getOpenConnections();
+
+    int getIdleConnections();
+
+    int getActiveConnections();
+
+    long getCreatedCount();
+
+    long getAcquiredCount();
+
+    long getTimeoutCount();
+
+    long getEvictedCount();
+
+    double getAverageAcquireMillis();
+
+    double getP99AcquireMillis();
+
+    double getMaxAcquireMillis();
+}
@@ -0,0 +1,109 @@
+package mealplanner;
+
+public class DatabaseConfig {
+    private static final String DEFAULT_URL = "jdbc:postgresql:meals_db";
+    private static final String DEFAULT_USER = "postgres";
+    private static final String DEFAULT_PASS = "1111";
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private int maxPoolSize = 10;
+    private long idleTimeoutMillis = 60_000;
+    private long acquireTimeoutMillis = 5_000;
+    private int validationTimeoutSeconds = 2;
+    private long validationIntervalMillis = 500;
+
+    public DatabaseConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public static DatabaseConfig fromSystemProperties() {
+        String mode = setting("mealplanner.db.mode", "postgres");
+        DatabaseConfig config;
+        if (mode.equals("embedded")) {
+            config = embedded(setting("mealplanner.db.name", "meals_db"));
+        } else {
+            config = new DatabaseConfig(
+                    setting("mealplanner.db.url", DEFAULT_URL),
+                    setting("mealplanner.db.user", DEFAULT_USER),
+                    setting("mealplanner.db.password", DEFAULT_PASS));
+        }
+        config.setMaxPoolSize(Integer.parseInt(setting("mealplanner.db.pool.size", "10")));
+        config.setIdleTimeoutMillis(Long.parseLong(setting("mealplanner.db.pool.idleTimeout", "60000")));
+        config.setAcquireTimeoutMillis(Long.parseLong(setting("mealplanner.db.pool.acquireTimeout", "5000")));
+        config.setValidationIntervalMillis(Long.parseLong(setting("mealplanner.db.pool.validationInterval", "500")));
+        return config;
+    }
+
+    public static DatabaseConfig embedded(String name) {
+        String url = "jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+        return new DatabaseConfig(url, "sa", "");
+    }
+
+    private static String setting(String property, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(property.toUpperCase().replace('.', '_'));
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        if (maxPoolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + maxPoolSize);
+        }
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+}
@@ -1,231 +1,1028 @@
 package mealplanner;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class DatabaseManager {
 
-    private static final String DB_URL = "jdbc:postgresql:meals_db";
-    private static final String USER = "postgres";
-    private static final String PASS = "1111";
+    private static final String INSERT_INGREDIENT_SQL =
+            "INSERT INTO meal_ingredients (meal_id, position, ingredient_name_id, quantity, unit) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PLAN_SQL = "INSERT INTO plan (meal_day, meal_option, meal_category, " +
+            "meal_id_meals, household_id, meal_date) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int COPY_CHUNK_SIZE = 10_000;
+    private static final int MAX_PLAN_ATTEMPTS = 20;
+    private static final int ANY_VERSION = Integer.MIN_VALUE;
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40001", "40P01", "23505", "HYT00");
+    private static final int SHOPPING_LIST_FETCH_SIZE = 1_000;
+    private static final int PLANNED_MEALS_FETCH_SIZE = 10_000;
+
+    private static final OperationMetrics ADD_MEAL = Metrics.operation("addMeal");
+    private static final OperationMetrics ADD_MEALS = Metrics.operation("addMeals");
+    private static final OperationMetrics IMPORT_MEALS = Metrics.operation("importMeals");
+    private static final OperationMetrics SAVE_PLAN = Metrics.operation("savePlan");
+    private static final OperationMetrics REPLACE_PLAN_SLOT = Metrics.operation("replacePlanSlot");
+    private static final OperationMetrics REMOVE_PLAN_SLOT = Metrics.operation("removePlanSlot");
+    private static final OperationMetrics IS_PLAN_SAVED = Metrics.operation("isPlanSaved");
+    private static final OperationMetrics GET_MEALS = Metrics.operation("getMeals");
+    private static final OperationMetrics GET_MEALS_BY_CATEGORY = Metrics.operation("getMealsByCategory");
+    private static final OperationMetrics GET_MEAL_ID_BY_NAME = Metrics.operation("getMealIdByName");
+    private static final OperationMetrics STREAM_SHOPPING_LIST = Metrics.operation("streamShoppingList");
+    private static final OperationMetrics GET_PLANS = Metrics.operation("getPlans");
+    private static final OperationMetrics STREAM_PLANNED_MEALS = Metrics.operation("streamPlannedMeals");
+    private static final OperationMetrics GET_MEAL_OPTION_FOR_DAY = Metrics.operation("getMealOptionForDay");
+    private static final OperationMetrics SAVE_NUTRITION = Metrics.operation("saveNutrition");
+    private static final OperationMetrics GET_NUTRITION = Metrics.operation("getNutrition");
+    private static final List<Consumer<List<Meal>>> mealListeners = new CopyOnWriteArrayList<>();
+    private static final List<PlanListener> planListeners = new CopyOnWriteArrayList<>();
+    private static volatile DataSource dataSource;
+
+    public static DataSource getDataSource() {
+        if (dataSource == null) {
+            synchronized (DatabaseManager.class) {
+                if (dataSource == null) {
+                    ConnectionPool pool = new ConnectionPool(DatabaseConfig.fromSystemProperties());
+                    Metrics.registerPool(pool);
+                    dataSource = pool;
+                }
+            }
+        }
+        return dataSource;
+    }
+
+    public static synchronized void setDataSource(DataSource newDataSource) {
+        if (newDataSource instanceof ConnectionPool) {
+            Metrics.registerPool((ConnectionPool) newDataSource);
+        }
+        dataSource = newDataSource;
+    }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, USER, PASS);
+        return getDataSource().getConnection();
+    }
+
+    public static void addMealListener(Consumer<List<Meal>> listener) {
+        mealListeners.add(listener);
+    }
+
+    public static void removeMealListener(Consumer<List<Meal>> listener) {
+        mealListeners.remove(listener);
     }
 
-    public static void createTables() {
+    private static void fireMealsAdded(List<Meal> meals) {
+        List<Meal> added = Collections.unmodifiableList(meals);
+        for (Consumer<List<Meal>> listener : mealListeners) {
+            listener.accept(added);
+        }
+    }
+
+    public static void addPlanListener(PlanListener listener) {
+        planListeners.add(listener);
+    }
+
+    public static void removePlanListener(PlanListener listener) {
+        planListeners.remove(listener);
+    }
+
+    private static void firePlanChanged(Plan previous, Plan current) {
+        for (PlanListener listener : planListeners) {
+            listener.planChanged(previous, current);
+        }
+    }
+
+    public static void createTables() throws SQLException {
         try (Connection connection = getConnection()) {
-            createMealsTable(connection);
-            createIngredientsTable(connection);
-            createPlanTable(connection);
-        } catch (SQLException e) {
-            e.printStackTrace();
+            SchemaMigrations.migrate(connection);
         }
     }
 
-    private static void createMealsTable(Connection connection) throws SQLException{
-        String createMealsTableSQL = "CREATE TABLE meals (" +
-                        "meal_id SERIAL PRIMARY KEY," +
-                        "category VARCHAR," +
-                        "meal VARCHAR)";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet mealsTable = connection.getMetaData().getTables(null, null, "meals", null);
-            if (!mealsTable.next()) {
-                statement.executeUpdate(createMealsTableSQL);
+    public static int addMeal(Connection connection, String category, String mealName, String[] ingredients)
+            throws SQLException {
+        requireAutoCommit(connection, "addMeal");
+        IngredientAmount[] amounts = parseAmounts(ingredients);
+        int mealId = timed(ADD_MEAL, () -> inTransaction(connection, () -> {
+            int generatedId = insertMeal(connection, category, mealName);
+            Map<String, Integer> ingredientNameIds = resolveIngredientNameIds(connection, namesOf(amounts), ADD_MEAL);
+            try (PreparedStatement insertIngredientsStatement = connection.prepareStatement(INSERT_INGREDIENT_SQL)) {
+                addIngredientsToBatch(insertIngredientsStatement, generatedId, amounts, ingredientNameIds);
+                insertIngredientsStatement.executeBatch();
             }
+            ADD_MEAL.addQueries(2);
+            return generatedId;
+        }));
+        fireMealsAdded(List.of(toMeal(mealId, mealName, category, amounts)));
+        return mealId;
+    }
+
+    public static int addMeals(Connection connection, List<Meal> meals) throws SQLException {
+        requireAutoCommit(connection, "addMeals");
+        int added = 0;
+        for (int start = 0; start < meals.size(); start += BULK_CHUNK_SIZE) {
+            List<Meal> chunk = meals.subList(start, Math.min(start + BULK_CHUNK_SIZE, meals.size()));
+            List<Meal> inserted = timed(ADD_MEALS, () -> inTransaction(connection, () -> {
+                List<IngredientAmount[]> chunkAmounts = new ArrayList<>(chunk.size());
+                Set<String> chunkIngredientNames = new HashSet<>();
+                for (Meal meal : chunk) {
+                    IngredientAmount[] amounts = parseAmounts(meal);
+                    chunkAmounts.add(amounts);
+                    chunkIngredientNames.addAll(namesOf(amounts));
+                }
+                Map<String, Integer> ingredientNameIds = resolveIngredientNameIds(connection, chunkIngredientNames,
+                        ADD_MEALS);
+
+                int[] mealIds = insertMeals(connection, chunk, ADD_MEALS);
+                List<Meal> insertedMeals = new ArrayList<>(chunk.size());
+                try (PreparedStatement insertIngredientsStatement = connection.prepareStatement(INSERT_INGREDIENT_SQL)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Meal meal = chunk.get(i);
+                        addIngredientsToBatch(insertIngredientsStatement, mealIds[i], chunkAmounts.get(i),
+                                ingredientNameIds);
+                        insertedMeals.add(toMeal(mealIds[i], meal.getName(), meal.getCategory(), chunkAmounts.get(i)));
+                    }
+                    insertIngredientsStatement.executeBatch();
+                }
+                ADD_MEALS.addQueries(1);
+                return insertedMeals;
+            }));
+            fireMealsAdded(inserted);
+            added += inserted.size();
         }
+        return added;
     }
 
-    private static void createIngredientsTable(Connection connection) throws SQLException{
-        String createIngredientsTableSQL = "CREATE TABLE ingredients (" +
-                        "ingredient_id SERIAL PRIMARY KEY ," +
-                        "ingredient VARCHAR," +
-                        "meal_id INTEGER REFERENCES meals (meal_id))";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet mealsTable = connection.getMetaData().getTables(null, null, "ingredients", null);
-            if (!mealsTable.next()) {
-                statement.executeUpdate(createIngredientsTableSQL);
-            }
+    public static int importMeals(Connection connection, List<Meal> meals) throws SQLException {
+        requireAutoCommit(connection, "importMeals");
+        meals = withoutExisting(connection, meals);
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return addMeals(connection, meals);
         }
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        int imported = 0;
+        for (int start = 0; start < meals.size(); start += COPY_CHUNK_SIZE) {
+            List<Meal> chunk = meals.subList(start, Math.min(start + COPY_CHUNK_SIZE, meals.size()));
+            List<Meal> inserted = timed(IMPORT_MEALS, () -> inTransaction(connection,
+                    () -> copyMeals(connection, copyManager, chunk)));
+            fireMealsAdded(inserted);
+            imported += inserted.size();
+        }
+        return imported;
     }
 
-    private static void createPlanTable(Connection connection) throws SQLException{
-        String createPlanTableSQL = "CREATE TABLE plan (" +
-                        "plan_id SERIAL PRIMARY KEY," +
-                        "meal_day VARCHAR," +
-                        "meal_option VARCHAR," +
-                        "meal_category VARCHAR," +
-                        "meal_id_meals INTEGER REFERENCES meals (meal_id))";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet mealsTable = connection.getMetaData().getTables(null, null, "plan", null);
-            if (!mealsTable.next()) {
-                statement.executeUpdate(createPlanTableSQL);
+    private static List<Meal> withoutExisting(Connection connection, List<Meal> meals) throws SQLException {
+        Set<String> names = new HashSet<>();
+        for (Meal meal : meals) {
+            if (meal.getName() != null) {
+                names.add(meal.getName());
+            }
+        }
+        Set<List<String>> existing = new HashSet<>();
+        String selectExistingMealsSQL = "SELECT category, meal FROM meals WHERE meal = ANY (?)";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(selectExistingMealsSQL)) {
+            preparedStatement.setArray(1, connection.createArrayOf("VARCHAR", names.toArray()));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    existing.add(Arrays.asList(resultSet.getString("category"), resultSet.getString("meal")));
+                }
+            }
+        }
+        IMPORT_MEALS.addQueries(1);
+
+        List<Meal> fresh = new ArrayList<>(meals.size());
+        for (Meal meal : meals) {
+            if (existing.add(Arrays.asList(meal.getCategory(), meal.getName()))) {
+                fresh.add(meal);
             }
         }
+        return fresh;
     }
 
-    public static void addMeal(Connection connection, String category, String mealName, String[] ingredients) {
-        String insertIntoMealsSQL = "INSERT INTO meals (meal_id, category, meal) VALUES (?, ?, ?)";
+    private static List<Meal> copyMeals(Connection connection, CopyManager copyManager, List<Meal> chunk)
+            throws SQLException {
+        List<IngredientAmount[]> chunkAmounts = new ArrayList<>(chunk.size());
+        Set<String> chunkIngredientNames = new HashSet<>();
+        for (Meal meal : chunk) {
+            IngredientAmount[] amounts = parseAmounts(meal);
+            chunkAmounts.add(amounts);
+            chunkIngredientNames.addAll(namesOf(amounts));
+        }
+        Map<String, Integer> ingredientNameIds = resolveIngredientNameIds(connection, chunkIngredientNames,
+                IMPORT_MEALS);
+        int[] mealIds = reserveMealIds(connection, chunk.size());
+
+        StringBuilder mealRows = new StringBuilder();
+        StringBuilder ingredientRows = new StringBuilder();
+        List<Meal> insertedMeals = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Meal meal = chunk.get(i);
+            IngredientAmount[] amounts = chunkAmounts.get(i);
+            mealRows.append(mealIds[i]).append(',').append(copyField(meal.getCategory())).append(',')
+                    .append(copyField(meal.getName())).append('\n');
+            for (int position = 0; position < amounts.length; position++) {
+                IngredientAmount amount = amounts[position];
+                ingredientRows.append(mealIds[i]).append(',').append(position).append(',')
+                        .append(ingredientNameIds.get(amount.getName())).append(',');
+                if (amount.hasUnit()) {
+                    ingredientRows.append(amount.getQuantity()).append(',').append(copyField(amount.getUnit().getSymbol()));
+                } else {
+                    ingredientRows.append(',');
+                }
+                ingredientRows.append('\n');
+            }
+            insertedMeals.add(toMeal(mealIds[i], meal.getName(), meal.getCategory(), amounts));
+        }
+
         try {
-            PreparedStatement insertMealStatement = connection.prepareStatement(
-                    insertIntoMealsSQL,
-                    Statement.RETURN_GENERATED_KEYS
-            );
+            copyManager.copyIn("COPY meals (meal_id, category, meal) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(mealRows.toString()));
+            copyManager.copyIn("COPY meal_ingredients (meal_id, position, ingredient_name_id, quantity, unit) " +
+                    "FROM STDIN WITH (FORMAT csv)", new StringReader(ingredientRows.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into meals failed", e);
+        }
+        IMPORT_MEALS.addQueries(3);
+        return insertedMeals;
+    }
+
+    private static int[] reserveMealIds(Connection connection, int count) throws SQLException {
+        String reserveMealIdsSQL = "SELECT nextval(pg_get_serial_sequence('meals', 'meal_id')) " +
+                "FROM generate_series(1, ?)";
+        int[] mealIds = new int[count];
+        try (PreparedStatement preparedStatement = connection.prepareStatement(reserveMealIdsSQL)) {
+            preparedStatement.setInt(1, count);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                for (int i = 0; i < count && resultSet.next(); i++) {
+                    mealIds[i] = resultSet.getInt(1);
+                }
+            }
+        }
+        return mealIds;
+    }
+
+    private static String copyField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static IngredientAmount[] parseAmounts(String[] ingredients) {
+        IngredientAmount[] amounts = new IngredientAmount[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            amounts[i] = parseAmount(ingredients[i]);
+        }
+        return amounts;
+    }
+
+    private static IngredientAmount[] parseAmounts(Meal meal) {
+        String[] names = meal.getIngredients();
+        IngredientAmount[] amounts = new IngredientAmount[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Unit unit = meal.getUnit(i);
+            amounts[i] = unit != null ? new IngredientAmount(names[i].trim(), meal.getQuantity(i), unit) : parseAmount(names[i]);
+        }
+        return amounts;
+    }
+
+    private static IngredientAmount parseAmount(String ingredient) {
+        IngredientAmount amount = IngredientAmount.parse(ingredient);
+        return amount != null ? amount : new IngredientAmount(ingredient.trim(), 1, null);
+    }
+
+    private static List<String> namesOf(IngredientAmount[] amounts) {
+        List<String> names = new ArrayList<>(amounts.length);
+        for (IngredientAmount amount : amounts) {
+            names.add(amount.getName());
+        }
+        return names;
+    }
+
+    private static Meal toMeal(int mealId, String mealName, String category, IngredientAmount[] amounts) {
+        return Meal.fromAmounts(mealId, mealName, category, amounts, IngredientDictionary.shared());
+    }
+
+    private static int insertMeal(Connection connection, String category, String mealName) throws SQLException {
+        String insertIntoMealsSQL = "INSERT INTO meals (category, meal) VALUES (?, ?)";
+        try (PreparedStatement insertMealStatement = connection.prepareStatement(
+                insertIntoMealsSQL,
+                Statement.RETURN_GENERATED_KEYS)) {
             insertMealStatement.setString(1, category);
             insertMealStatement.setString(2, mealName);
             insertMealStatement.executeUpdate();
 
-            int mealId;
             try (ResultSet generatedKeys = insertMealStatement.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    mealId = generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Failed to get the auto-generated meal_id.");
+                    return generatedKeys.getInt(1);
                 }
             }
+        }
+        throw new SQLException("Failed to get the auto-generated meal_id.");
+    }
 
-            String insertIntoIngredientsSQL = "INSERT INTO ingredients (ingredient_id, ingredient, meal_id) VALUES (?, ?, ?)";
-            PreparedStatement insertIngredientsStatement = connection.prepareStatement(
-                    insertIntoIngredientsSQL,
-                    Statement.RETURN_GENERATED_KEYS);
+    private static int[] insertMeals(Connection connection, List<Meal> meals, OperationMetrics metrics)
+            throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            int[] mealIds = reserveMealIds(connection, meals.size());
+            String insertIntoMealsSQL = "INSERT INTO meals (meal_id, category, meal) VALUES (?, ?, ?)";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(insertIntoMealsSQL)) {
+                for (int i = 0; i < meals.size(); i++) {
+                    preparedStatement.setInt(1, mealIds[i]);
+                    preparedStatement.setString(2, meals.get(i).getCategory());
+                    preparedStatement.setString(3, meals.get(i).getName());
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            }
+            metrics.addQueries(2);
+            return mealIds;
+        }
 
-            for (String ingredient : ingredients) {
-                insertIngredientsStatement.setString(1, ingredient.trim());
-                insertIngredientsStatement.setInt(2, mealId);
-                insertIngredientsStatement.executeUpdate();
+        String insertIntoMealsSQL = "INSERT INTO meals (category, meal) VALUES (?, ?)";
+        int[] mealIds = new int[meals.size()];
+        try (PreparedStatement preparedStatement = connection.prepareStatement(insertIntoMealsSQL,
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (Meal meal : meals) {
+                preparedStatement.setString(1, meal.getCategory());
+                preparedStatement.setString(2, meal.getName());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                int count = 0;
+                while (count < mealIds.length && generatedKeys.next()) {
+                    mealIds[count++] = generatedKeys.getInt(1);
+                }
+                if (count < mealIds.length) {
+                    throw new SQLException("Failed to get the auto-generated meal_id for " +
+                            (mealIds.length - count) + " meals.");
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+        metrics.addQueries(1);
+        return mealIds;
     }
 
-    public static void savePlan(Connection connection, List<Plan> plans) throws SQLException {
-        String insertPlanSQL = "INSERT INTO plan (meal_day, meal_option, meal_category, meal_id_meals) " +
-                "VALUES (?, ?, ?, ?)";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertPlanSQL)) {
-            for (Plan plan : plans) {
-                preparedStatement.setString(1, plan.getMealDay());
-                preparedStatement.setString(2, plan.getMealOption());
-                preparedStatement.setString(3, plan.getMealCategory());
-                preparedStatement.setInt(4, plan.getMealIdMeals());
-                preparedStatement.executeUpdate();
+    private static Map<String, Integer> resolveIngredientNameIds(Connection connection, Collection<String> names,
+                                                                 OperationMetrics metrics) throws SQLException {
+        Map<String, Integer> ingredientNameIds = selectIngredientNameIds(connection, names);
+        metrics.addQueries(1);
+        if (ingredientNameIds.size() == new HashSet<>(names).size()) {
+            return ingredientNameIds;
+        }
+
+        String insertIngredientNameSQL = "INSERT INTO ingredient_names (name) VALUES (?) ON CONFLICT DO NOTHING";
+        List<String> missing = new ArrayList<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(insertIngredientNameSQL)) {
+            for (String name : new HashSet<>(names)) {
+                if (!ingredientNameIds.containsKey(name)) {
+                    missing.add(name);
+                    preparedStatement.setString(1, name);
+                    preparedStatement.addBatch();
+                }
             }
+            preparedStatement.executeBatch();
         }
+        ingredientNameIds.putAll(selectIngredientNameIds(connection, missing));
+        metrics.addQueries(2);
+        return ingredientNameIds;
     }
 
-    public static boolean isPlanSaved(Connection connection) throws SQLException {
-        String checkPlanSQL = "SELECT COUNT(*) AS count FROM plan";
+    private static Map<String, Integer> selectIngredientNameIds(Connection connection, Collection<String> names)
+            throws SQLException {
+        String selectIngredientNamesSQL = "SELECT ingredient_name_id, name FROM ingredient_names WHERE name = ANY (?)";
+        Map<String, Integer> ingredientNameIds = new HashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(selectIngredientNamesSQL)) {
+            preparedStatement.setArray(1, connection.createArrayOf("VARCHAR", names.toArray()));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    ingredientNameIds.put(resultSet.getString("name"), resultSet.getInt("ingredient_name_id"));
+                }
+            }
+        }
+        return ingredientNameIds;
+    }
 
-        try (Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery(checkPlanSQL)) {
-            resultSet.next();
-            int rowCount = resultSet.getInt("count");
-            return rowCount > 0;
+    private static void addIngredientsToBatch(PreparedStatement insertIngredientsStatement, int mealId,
+                                              IngredientAmount[] amounts, Map<String, Integer> ingredientNameIds)
+            throws SQLException {
+        for (int position = 0; position < amounts.length; position++) {
+            IngredientAmount amount = amounts[position];
+            insertIngredientsStatement.setInt(1, mealId);
+            insertIngredientsStatement.setInt(2, position);
+            insertIngredientsStatement.setInt(3, ingredientNameIds.get(amount.getName()));
+            if (amount.hasUnit()) {
+                insertIngredientsStatement.setDouble(4, amount.getQuantity());
+                insertIngredientsStatement.setString(5, amount.getUnit().getSymbol());
+            } else {
+                insertIngredientsStatement.setNull(4, Types.DOUBLE);
+                insertIngredientsStatement.setNull(5, Types.VARCHAR);
+            }
+            insertIngredientsStatement.addBatch();
         }
     }
 
-    public static List<Meal> getMeals(Connection connection) throws SQLException {
-        String selectMealsSQL = "SELECT * FROM meals";
-        List<Meal> meals = new ArrayList<>();
+    public static void savePlan(Connection connection, List<Plan> plans) throws SQLException {
+        requireAutoCommit(connection, "savePlan");
+        List<Plan> previous = timed(SAVE_PLAN, () -> withRetry(SAVE_PLAN, connection,
+                () -> inTransaction(connection, () -> {
+            List<Plan> replaced = new ArrayList<>(plans.size());
+            try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PLAN_SQL)) {
+                boolean hasLegacyPlans = false;
+                for (Plan plan : plans) {
+                    if (plan.getMealDate() != null) {
+                        replaced.add(upsertPlanSlot(connection, plan, ANY_VERSION, SAVE_PLAN));
+                    } else {
+                        addPlanToBatch(preparedStatement, plan);
+                        hasLegacyPlans = true;
+                        replaced.add(null);
+                    }
+                }
+                if (hasLegacyPlans) {
+                    preparedStatement.executeBatch();
+                    SAVE_PLAN.addQueries(1);
+                }
+            }
+            return replaced;
+        })));
+        for (int i = 0; i < plans.size(); i++) {
+            firePlanChanged(previous.get(i), plans.get(i));
+        }
+    }
 
-        try (Statement statement = connection.createStatement()) {
-            ResultSet mealResultSet = statement.executeQuery(selectMealsSQL);
+    public static void replacePlanSlot(Connection connection, Plan plan) throws SQLException {
+        replacePlanSlot(connection, plan, ANY_VERSION);
+    }
 
-            while (mealResultSet.next()) {
-                int mealId = mealResultSet.getInt("meal_id");
-                String category = mealResultSet.getString("category");
-                String name = mealResultSet.getString("meal");
-                List<String> ingredients = getIngredientsForMeal(connection, mealId);
+    public static void replacePlanSlot(Connection connection, Plan plan, int expectedVersion) throws SQLException {
+        if (plan.getMealDate() == null) {
+            throw new IllegalArgumentException("Only dated plans can replace a slot");
+        }
+        requireAutoCommit(connection, "replacePlanSlot");
+        SqlWork<Plan> upsert = () -> inTransaction(connection,
+                () -> upsertPlanSlot(connection, plan, expectedVersion, REPLACE_PLAN_SLOT));
+        Plan previous = timed(REPLACE_PLAN_SLOT,
+                expectedVersion == ANY_VERSION ? () -> withRetry(REPLACE_PLAN_SLOT, connection, upsert) : upsert);
+        firePlanChanged(previous, plan);
+    }
 
-                Meal meal = new Meal(name, category, ingredients.toArray(new String[0]));
-                meals.add(meal);
+    private static Plan upsertPlanSlot(Connection connection, Plan plan, int expectedVersion, OperationMetrics metrics)
+            throws SQLException {
+        Plan previous = selectPlanSlot(connection, plan.getHouseholdId(), plan.getMealDate(), plan.getMealCategory());
+        int currentVersion = previous == null ? Plan.UNSAVED_VERSION : previous.getVersion();
+        if (expectedVersion != ANY_VERSION && expectedVersion != currentVersion) {
+            throw new PlanConflictException("Plan slot " + plan.getMealDate() + " " + plan.getMealCategory() +
+                    " is at version " + currentVersion + ", expected " + expectedVersion);
+        }
+
+        if (previous == null) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_PLAN_SQL)) {
+                addPlanToBatch(preparedStatement, plan);
+                preparedStatement.executeBatch();
+            } catch (SQLException e) {
+                if (expectedVersion != ANY_VERSION && "23505".equals(e.getSQLState())) {
+                    throw new PlanConflictException("Plan slot " + plan.getMealDate() + " " +
+                            plan.getMealCategory() + " was saved concurrently");
+                }
+                throw e;
             }
+            metrics.addQueries(2);
+            plan.setVersion(0);
+            return null;
         }
-        return meals;
+
+        String updatePlanSlotSQL = "UPDATE plan SET meal_day = ?, meal_option = ?, meal_id_meals = ?, " +
+                "version = version + 1 " +
+                "WHERE household_id = ? AND meal_date = ? AND meal_category = ? AND version = ?";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(updatePlanSlotSQL)) {
+            preparedStatement.setString(1, plan.getMealDay());
+            preparedStatement.setString(2, plan.getMealOption());
+            preparedStatement.setInt(3, plan.getMealIdMeals());
+            preparedStatement.setInt(4, plan.getHouseholdId());
+            preparedStatement.setObject(5, plan.getMealDate());
+            preparedStatement.setString(6, plan.getMealCategory());
+            preparedStatement.setInt(7, currentVersion);
+            metrics.addQueries(2);
+            if (preparedStatement.executeUpdate() == 0) {
+                throw new PlanConflictException("Plan slot " + plan.getMealDate() + " " + plan.getMealCategory() +
+                        " changed after version " + currentVersion);
+            }
+        }
+        plan.setVersion(currentVersion + 1);
+        return previous;
     }
 
-    private static List<String> getIngredientsForMeal(Connection connection, int mealId) throws SQLException {
-        String selectIngredientsSQL = "SELECT * FROM ingredients";
-        List<String> ingredients = new ArrayList<>();
+    private static Plan selectPlanSlot(Connection connection, int householdId, LocalDate mealDate,
+                                       String mealCategory) throws SQLException {
+        String selectSlotSQL = "SELECT meal_option, meal_id_meals, version FROM plan " +
+                "WHERE household_id = ? AND meal_date = ? AND meal_category = ?";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(selectSlotSQL)) {
+            preparedStatement.setInt(1, householdId);
+            preparedStatement.setObject(2, mealDate);
+            preparedStatement.setString(3, mealCategory);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                Plan plan = new Plan(householdId, mealDate, resultSet.getString("meal_option"), mealCategory,
+                        resultSet.getInt("meal_id_meals"));
+                plan.setVersion(resultSet.getInt("version"));
+                return plan;
+            }
+        }
+    }
 
-        try (PreparedStatement ingredientsStatement = connection.prepareStatement(selectIngredientsSQL)) {
-            ResultSet ingredientsResultSet = ingredientsStatement.executeQuery();
+    public static void removePlanSlot(Connection connection, int householdId, LocalDate mealDate, String mealCategory)
+            throws SQLException {
+        requireAutoCommit(connection, "removePlanSlot");
+        List<Plan> previous = timed(REMOVE_PLAN_SLOT, () -> inTransaction(connection, () -> {
+            REMOVE_PLAN_SLOT.addQueries(2);
+            return deletePlanSlot(connection, householdId, mealDate, mealCategory);
+        }));
+        for (Plan plan : previous) {
+            firePlanChanged(plan, null);
+        }
+    }
 
-            while (ingredientsResultSet.next()) {
-                int ingredientMealId = ingredientsResultSet.getInt("meal_id");
-                if (ingredientMealId == mealId) {
-                    String ingredient = ingredientsResultSet.getString("ingredient");
-                    ingredients.add(ingredient);
+    private static List<Plan> deletePlanSlot(Connection connection, int householdId, LocalDate mealDate,
+                                             String mealCategory) throws SQLException {
+        String selectSlotSQL = "SELECT meal_option, meal_id_meals, version FROM plan " +
+                "WHERE household_id = ? AND meal_date = ? AND meal_category = ? ORDER BY plan_id";
+        String deleteSlotSQL = "DELETE FROM plan WHERE household_id = ? AND meal_date = ? AND meal_category = ?";
+        List<Plan> removed = new ArrayList<>();
+        try (PreparedStatement selectStatement = connection.prepareStatement(selectSlotSQL);
+             PreparedStatement deleteStatement = connection.prepareStatement(deleteSlotSQL)) {
+            for (PreparedStatement preparedStatement : List.of(selectStatement, deleteStatement)) {
+                preparedStatement.setInt(1, householdId);
+                preparedStatement.setObject(2, mealDate);
+                preparedStatement.setString(3, mealCategory);
+            }
+            try (ResultSet resultSet = selectStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    Plan plan = new Plan(householdId, mealDate, resultSet.getString("meal_option"), mealCategory,
+                            resultSet.getInt("meal_id_meals"));
+                    plan.setVersion(resultSet.getInt("version"));
+                    removed.add(plan);
                 }
             }
+            deleteStatement.executeUpdate();
         }
-        return ingredients;
+        return removed;
     }
-    public static int getMealIdByName(Connection connection, String mealName) throws SQLException {
-        String getMealIdByNameSQL = "SELECT meal_id FROM meals WHERE meal = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(getMealIdByNameSQL)) {
-            preparedStatement.setString(1, mealName);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getInt("meal_id");
+
+    private static void addPlanToBatch(PreparedStatement preparedStatement, Plan plan) throws SQLException {
+        preparedStatement.setString(1, plan.getMealDay());
+        preparedStatement.setString(2, plan.getMealOption());
+        preparedStatement.setString(3, plan.getMealCategory());
+        preparedStatement.setInt(4, plan.getMealIdMeals());
+        preparedStatement.setInt(5, plan.getHouseholdId());
+        if (plan.getMealDate() != null) {
+            preparedStatement.setObject(6, plan.getMealDate());
+        } else {
+            preparedStatement.setNull(6, Types.DATE);
+        }
+        preparedStatement.addBatch();
+    }
+
+    private static void requireAutoCommit(Connection connection, String operation) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            throw new IllegalStateException(operation + " commits its own transaction before notifying listeners " +
+                    "and cannot run inside a caller's transaction");
+        }
+    }
+
+    private static <T> T inTransaction(Connection connection, SqlWork<T> work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.run();
+        }
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static <T> T timed(OperationMetrics metrics, SqlWork<T> work) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = work.run();
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(start, failed);
+        }
+    }
+
+    private static <T> T withRetry(OperationMetrics metrics, Connection connection, SqlWork<T> work)
+            throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.run();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.run();
+            } catch (SQLException e) {
+                if (attempt >= MAX_PLAN_ATTEMPTS || !RETRYABLE_SQL_STATES.contains(e.getSQLState())) {
+                    throw e;
                 }
+                metrics.addRetry();
+                backOff(attempt);
             }
         }
-        throw new SQLException("Meal not found: " + mealName);
     }
 
-    public static List<Meal> getMealsByCategory(Connection connection, String categoryChoice) throws SQLException {
-        String selectMealsSQL = "SELECT * FROM meals WHERE category = ?";
-        List<Meal> mealsList = new ArrayList<>();
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1, 1 + Math.min(50, 1 << attempt)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying a plan write", e);
+        }
+    }
 
-        try (PreparedStatement preparedStatement = connection.prepareStatement(selectMealsSQL)) {
-            preparedStatement.setString(1, categoryChoice);
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
 
-            try (ResultSet mealResultSet = preparedStatement.executeQuery()) {
+    private interface StatementBinder {
+        void bind(PreparedStatement preparedStatement) throws SQLException;
+    }
 
-                while (mealResultSet.next()) {
-                    int mealId = mealResultSet.getInt("meal_id");
-                    String category = mealResultSet.getString("category");
-                    String name = mealResultSet.getString("meal");
-                    List<String> ingredients = getIngredientsForMeal(connection, mealId);
+    public static boolean isPlanSaved(Connection connection) throws SQLException {
+        String checkPlanSQL = "SELECT 1 FROM plan LIMIT 1";
 
-                    Meal meal = new Meal(name, category, ingredients.toArray(new String[0]));
-                    mealsList.add(meal);
+        return timed(IS_PLAN_SAVED, () -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(checkPlanSQL)) {
+                boolean saved = resultSet.next();
+                IS_PLAN_SAVED.addQueries(1);
+                IS_PLAN_SAVED.addRows(saved ? 1 : 0, saved ? 1 : 0);
+                return saved;
+            }
+        });
+    }
+
+    public static List<Meal> getMeals(Connection connection) throws SQLException {
+        String selectMealsSQL = "SELECT meals.meal_id, meals.category, meals.meal, ingredient_names.name AS ingredient, " +
+                "meal_ingredients.quantity, meal_ingredients.unit " +
+                "FROM meals LEFT JOIN meal_ingredients ON meal_ingredients.meal_id = meals.meal_id " +
+                "LEFT JOIN ingredient_names ON ingredient_names.ingredient_name_id = meal_ingredients.ingredient_name_id " +
+                "ORDER BY meals.meal_id, meal_ingredients.position";
+
+        return timed(GET_MEALS, () -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(selectMealsSQL);
+                 ResultSet mealResultSet = preparedStatement.executeQuery()) {
+                return readMeals(mealResultSet, GET_MEALS);
+            }
+        });
+    }
+
+    private static List<Meal> readMeals(ResultSet mealResultSet, OperationMetrics metrics) throws SQLException {
+        IngredientDictionary dictionary = IngredientDictionary.shared();
+        List<Meal> meals = new ArrayList<>();
+        int[] ingredientIds = new int[16];
+        double[] quantities = new double[16];
+        Unit[] units = new Unit[16];
+        boolean hasUnits = false;
+        int ingredientCount = 0;
+        long rowCount = 0;
+        int currentMealId = -1;
+        String category = null;
+        String name = null;
+
+        while (mealResultSet.next()) {
+            rowCount++;
+            int mealId = mealResultSet.getInt("meal_id");
+            if (mealId != currentMealId) {
+                if (name != null) {
+                    meals.add(newMeal(currentMealId, name, category, ingredientIds, quantities, units, hasUnits,
+                            ingredientCount, dictionary));
+                    ingredientCount = 0;
+                    hasUnits = false;
                 }
+                currentMealId = mealId;
+                category = mealResultSet.getString("category");
+                name = mealResultSet.getString("meal");
             }
+            String ingredient = mealResultSet.getString("ingredient");
+            if (ingredient != null) {
+                if (ingredientCount == ingredientIds.length) {
+                    ingredientIds = Arrays.copyOf(ingredientIds, ingredientCount * 2);
+                    quantities = Arrays.copyOf(quantities, ingredientCount * 2);
+                    units = Arrays.copyOf(units, ingredientCount * 2);
+                }
+                String unit = mealResultSet.getString("unit");
+                units[ingredientCount] = unit == null ? null : Unit.parse(unit);
+                quantities[ingredientCount] = mealResultSet.getDouble("quantity");
+                hasUnits |= units[ingredientCount] != null;
+                ingredientIds[ingredientCount++] = dictionary.intern(ingredient);
+            }
+        }
+        if (name != null) {
+            meals.add(newMeal(currentMealId, name, category, ingredientIds, quantities, units, hasUnits,
+                    ingredientCount, dictionary));
+        }
+        metrics.addQueries(1);
+        metrics.addRows(rowCount, meals.size());
+        return meals;
+    }
+
+    private static Meal newMeal(int mealId, String name, String category, int[] ingredientIds, double[] quantities,
+                                Unit[] units, boolean hasUnits, int ingredientCount, IngredientDictionary dictionary) {
+        if (!hasUnits) {
+            return new Meal(mealId, name, category, Arrays.copyOf(ingredientIds, ingredientCount), dictionary);
         }
-        return mealsList;
+        return new Meal(mealId, name, category, Arrays.copyOf(ingredientIds, ingredientCount),
+                Arrays.copyOf(quantities, ingredientCount), Arrays.copyOf(units, ingredientCount), dictionary);
+    }
+
+    public static int getMealIdByName(Connection connection, String mealName) throws SQLException {
+        String getMealIdByNameSQL = "SELECT meal_id FROM meals WHERE meal = ?";
+        return timed(GET_MEAL_ID_BY_NAME, () -> {
+            GET_MEAL_ID_BY_NAME.addQueries(1);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(getMealIdByNameSQL)) {
+                preparedStatement.setString(1, mealName);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (resultSet.next()) {
+                        GET_MEAL_ID_BY_NAME.addRows(1, 1);
+                        return resultSet.getInt("meal_id");
+                    }
+                }
+            }
+            throw new SQLException("Meal not found: " + mealName);
+        });
+    }
+
+    public static List<Meal> getMealsByCategory(Connection connection, String categoryChoice) throws SQLException {
+        String selectMealsSQL = "SELECT meals.meal_id, meals.category, meals.meal, ingredient_names.name AS ingredient, " +
+                "meal_ingredients.quantity, meal_ingredients.unit " +
+                "FROM meals LEFT JOIN meal_ingredients ON meal_ingredients.meal_id = meals.meal_id " +
+                "LEFT JOIN ingredient_names ON ingredient_names.ingredient_name_id = meal_ingredients.ingredient_name_id " +
+                "WHERE meals.category = ? " +
+                "ORDER BY meals.meal_id, meal_ingredients.position";
+
+        return timed(GET_MEALS_BY_CATEGORY, () -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(selectMealsSQL)) {
+                preparedStatement.setString(1, categoryChoice);
+
+                try (ResultSet mealResultSet = preparedStatement.executeQuery()) {
+                    return readMeals(mealResultSet, GET_MEALS_BY_CATEGORY);
+                }
+            }
+        });
     }
 
     public static void getShoppingListForWeek(Connection connection, PrintWriter printWriter) throws SQLException {
-        String getShoppingListForWeekSQL = "SELECT ingredient, SUM(1) as total_count FROM ingredients " +
-                "JOIN plan ON ingredients.meal_id = plan.meal_id_meals " +
-                "GROUP BY ingredient";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(getShoppingListForWeekSQL)) {
+        try {
+            streamShoppingList(connection, ShoppingListFormat.TEXT.newWriter(printWriter));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void streamShoppingList(Connection connection, ShoppingListWriter shoppingListWriter)
+            throws SQLException, IOException {
+        String getShoppingListForWeekSQL = "SELECT ingredient_names.name AS ingredient, COUNT(*) AS total_count " +
+                "FROM plan JOIN meal_ingredients ON meal_ingredients.meal_id = plan.meal_id_meals " +
+                "JOIN ingredient_names ON ingredient_names.ingredient_name_id = meal_ingredients.ingredient_name_id " +
+                "GROUP BY ingredient_names.name ORDER BY ingredient_names.name";
+        streamShoppingList(connection, getShoppingListForWeekSQL, preparedStatement -> { }, shoppingListWriter);
+    }
+
+    public static void streamShoppingList(Connection connection, int householdId, LocalDate from, LocalDate to,
+                                          ShoppingListWriter shoppingListWriter) throws SQLException, IOException {
+        String getShoppingListForRangeSQL = "SELECT ingredient_names.name AS ingredient, COUNT(*) AS total_count " +
+                "FROM plan JOIN meal_ingredients ON meal_ingredients.meal_id = plan.meal_id_meals " +
+                "JOIN ingredient_names ON ingredient_names.ingredient_name_id = meal_ingredients.ingredient_name_id " +
+                "WHERE plan.household_id = ? AND plan.meal_date BETWEEN ? AND ? " +
+                "GROUP BY ingredient_names.name ORDER BY ingredient_names.name";
+        streamShoppingList(connection, getShoppingListForRangeSQL, preparedStatement -> {
+            preparedStatement.setInt(1, householdId);
+            preparedStatement.setObject(2, from);
+            preparedStatement.setObject(3, to);
+        }, shoppingListWriter);
+    }
+
+    private static void streamShoppingList(Connection connection, String shoppingListSQL, StatementBinder binder,
+                                           ShoppingListWriter shoppingListWriter) throws SQLException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        long rowCount = 0;
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try (PreparedStatement preparedStatement = connection.prepareStatement(shoppingListSQL)) {
+            binder.bind(preparedStatement);
+            preparedStatement.setFetchSize(SHOPPING_LIST_FETCH_SIZE);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    String ingredient = resultSet.getString("ingredient");
-                    int totalCount = resultSet.getInt("total_count");
-                    String shoppingListItem = totalCount > 1 ? ingredient + " x" + totalCount : ingredient;
-                    printWriter.println(shoppingListItem);
+                    rowCount++;
+                    shoppingListWriter.writeItem(resultSet.getString("ingredient"), resultSet.getLong("total_count"));
+                }
+            }
+            if (autoCommit) {
+                connection.commit();
+            }
+            failed = false;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+            STREAM_SHOPPING_LIST.addQueries(1);
+            STREAM_SHOPPING_LIST.addRows(rowCount, rowCount);
+            STREAM_SHOPPING_LIST.record(start, failed);
+        }
+    }
+
+    public static List<Plan> getPlans(Connection connection, int householdId, LocalDate from, LocalDate to)
+            throws SQLException {
+        return getPlans(connection, new int[]{householdId}, from, to).getOrDefault(householdId, new ArrayList<>());
+    }
+
+    public static Map<Integer, List<Plan>> getPlans(Connection connection, int[] householdIds, LocalDate from,
+                                                    LocalDate to) throws SQLException {
+        String getPlansSQL = "SELECT household_id, meal_date, meal_option, meal_category, meal_id_meals, version " +
+                "FROM plan " +
+                "WHERE household_id = ANY (?) AND meal_date BETWEEN ? AND ? " +
+                "ORDER BY household_id, meal_date, plan_id";
+        Integer[] householdArray = new Integer[householdIds.length];
+        for (int i = 0; i < householdIds.length; i++) {
+            householdArray[i] = householdIds[i];
+        }
+
+        return timed(GET_PLANS, () -> {
+            Map<Integer, List<Plan>> plansByHousehold = new HashMap<>();
+            long rowCount = 0;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(getPlansSQL)) {
+                preparedStatement.setArray(1, connection.createArrayOf("INTEGER", householdArray));
+                preparedStatement.setObject(2, from);
+                preparedStatement.setObject(3, to);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rowCount++;
+                        int householdId = resultSet.getInt("household_id");
+                        Plan plan = new Plan(householdId,
+                                resultSet.getObject("meal_date", LocalDate.class),
+                                resultSet.getString("meal_option"),
+                                resultSet.getString("meal_category"),
+                                resultSet.getInt("meal_id_meals"));
+                        plan.setVersion(resultSet.getInt("version"));
+                        plansByHousehold.computeIfAbsent(householdId, id -> new ArrayList<>()).add(plan);
+                    }
                 }
             }
+            GET_PLANS.addQueries(1);
+            GET_PLANS.addRows(rowCount, rowCount);
+            return plansByHousehold;
+        });
+    }
+
+    public static void streamPlannedMeals(Connection connection, int[] householdIds, LocalDate from, LocalDate to,
+                                          PlannedMealSink sink) throws SQLException {
+        String streamPlannedMealsSQL = "SELECT household_id, meal_date, meal_id_meals " +
+                "FROM plan " +
+                "WHERE household_id = ANY (?) AND meal_date BETWEEN ? AND ?";
+        Integer[] householdArray = new Integer[householdIds.length];
+        for (int i = 0; i < householdIds.length; i++) {
+            householdArray[i] = householdIds[i];
         }
+
+        timed(STREAM_PLANNED_MEALS, () -> inTransaction(connection, () -> {
+            long rowCount = 0;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(streamPlannedMealsSQL)) {
+                preparedStatement.setArray(1, connection.createArrayOf("INTEGER", householdArray));
+                preparedStatement.setObject(2, from);
+                preparedStatement.setObject(3, to);
+                preparedStatement.setFetchSize(PLANNED_MEALS_FETCH_SIZE);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rowCount++;
+                        sink.add(resultSet.getInt(1), resultSet.getObject(2, LocalDate.class), resultSet.getInt(3));
+                    }
+                }
+            } finally {
+                STREAM_PLANNED_MEALS.addQueries(1);
+                STREAM_PLANNED_MEALS.addRows(rowCount, rowCount);
+            }
+            return rowCount;
+        }));
     }
 
     public static String getMealOptionForDay(Connection connection, String day, String mealCategory) throws SQLException {
-        String getMealOptionForDaySQL = "SELECT meal_option FROM plan WHERE meal_day = ? AND meal_category = ?";
-        try (PreparedStatement preparedStatement = connection.prepareStatement(getMealOptionForDaySQL)){
-            preparedStatement.setString(1, day);
-            preparedStatement.setString(2, mealCategory);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getString("meal_option");
+        String getMealOptionForDaySQL = "SELECT meal_option FROM plan WHERE meal_day = ? AND meal_category = ? " +
+                "ORDER BY plan_id DESC LIMIT 1";
+        return timed(GET_MEAL_OPTION_FOR_DAY, () -> {
+            GET_MEAL_OPTION_FOR_DAY.addQueries(1);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(getMealOptionForDaySQL)){
+                preparedStatement.setString(1, day);
+                preparedStatement.setString(2, mealCategory);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (resultSet.next()) {
+                        GET_MEAL_OPTION_FOR_DAY.addRows(1, 1);
+                        return resultSet.getString("meal_option");
+                    }
                 }
             }
+            return "Not planned";
+        });
+    }
+
+    public static void saveNutrition(Connection connection, String ingredient, Unit.Dimension dimension,
+                                     double[] valuesPerBaseUnit) throws SQLException {
+        Nutrient[] nutrients = Nutrient.values();
+        StringBuilder assignments = new StringBuilder("dimension = ?");
+        StringBuilder columns = new StringBuilder("ingredient_name_id, dimension");
+        StringBuilder placeholders = new StringBuilder("?, ?");
+        for (Nutrient nutrient : nutrients) {
+            assignments.append(", ").append(nutrient.getColumn()).append(" = ?");
+            columns.append(", ").append(nutrient.getColumn());
+            placeholders.append(", ?");
         }
-        return "Not planned";
+        String updateNutritionSQL = "UPDATE ingredient_nutrition SET " + assignments + " WHERE ingredient_name_id = ?";
+        String insertNutritionSQL = "INSERT INTO ingredient_nutrition (" + columns + ") VALUES (" + placeholders + ")";
+
+        timed(SAVE_NUTRITION, () -> withRetry(SAVE_NUTRITION, connection, () -> inTransaction(connection, () -> {
+            int ingredientNameId = resolveIngredientNameIds(connection, List.of(ingredient), SAVE_NUTRITION)
+                    .get(ingredient);
+            try (PreparedStatement updateStatement = connection.prepareStatement(updateNutritionSQL)) {
+                updateStatement.setString(1, dimension.name());
+                for (int i = 0; i < nutrients.length; i++) {
+                    updateStatement.setDouble(i + 2, valuesPerBaseUnit[i]);
+                }
+                updateStatement.setInt(nutrients.length + 2, ingredientNameId);
+                SAVE_NUTRITION.addQueries(1);
+                if (updateStatement.executeUpdate() > 0) {
+                    return null;
+                }
+            }
+            try (PreparedStatement insertStatement = connection.prepareStatement(insertNutritionSQL)) {
+                insertStatement.setInt(1, ingredientNameId);
+                insertStatement.setString(2, dimension.name());
+                for (int i = 0; i < nutrients.length; i++) {
+                    insertStatement.setDouble(i + 3, valuesPerBaseUnit[i]);
+                }
+                SAVE_NUTRITION.addQueries(1);
+                insertStatement.executeUpdate();
+            }
+            return null;
+        })));
+    }
+
+    public static NutritionTable getNutrition(Connection connection, IngredientDictionary dictionary)
+            throws SQLException {
+        Nutrient[] nutrients = Nutrient.values();
+        StringBuilder columns = new StringBuilder();
+        for (Nutrient nutrient : nutrients) {
+            columns.append(", ingredient_nutrition.").append(nutrient.getColumn());
+        }
+        String getNutritionSQL = "SELECT ingredient_names.name AS ingredient, ingredient_nutrition.dimension" +
+                columns + " FROM ingredient_nutrition JOIN ingredient_names " +
+                "ON ingredient_names.ingredient_name_id = ingredient_nutrition.ingredient_name_id";
+
+        return timed(GET_NUTRITION, () -> {
+            NutritionTable table = new NutritionTable(dictionary);
+            double[] values = new double[nutrients.length];
+            long rowCount = 0;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(getNutritionSQL)) {
+                while (resultSet.next()) {
+                    rowCount++;
+                    for (int i = 0; i < nutrients.length; i++) {
+                        values[i] = resultSet.getDouble(nutrients[i].getColumn());
+                    }
+                    table.put(dictionary.intern(resultSet.getString("ingredient")),
+                            Unit.Dimension.valueOf(resultSet.getString("dimension")), values);
+                }
+            }
+            GET_NUTRITION.addQueries(1);
+            GET_NUTRITION.addRows(rowCount, rowCount);
+            return table;
+        });
     }
 }
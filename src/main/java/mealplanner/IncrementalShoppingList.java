@@ -0,0 +1,136 @@
+package mealplanner;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+public class IncrementalShoppingList implements PlanListener {
+    private final IntFunction<Meal> meals;
+    private final IngredientDictionary dictionary;
+    private final Map<WeekKey, ShoppingListTotals> weeks;
+
+    public IncrementalShoppingList(IntFunction<Meal> meals, IngredientDictionary dictionary, int maxWeeks) {
+        this.meals = meals;
+        this.dictionary = dictionary;
+        this.weeks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WeekKey, ShoppingListTotals> eldest) {
+                return size() > maxWeeks;
+            }
+        };
+    }
+
+    @Override
+    public void planChanged(Plan previous, Plan current) {
+        if (previous != null && current != null && sameWeek(previous, current)
+                && previous.getMealIdMeals() == current.getMealIdMeals()) {
+            return;
+        }
+        apply(previous, -1);
+        apply(current, 1);
+    }
+
+    private void apply(Plan plan, int times) {
+        if (plan == null || plan.getMealDate() == null) {
+            return;
+        }
+        WeekKey key = keyOf(plan);
+        ShoppingListTotals totals;
+        synchronized (weeks) {
+            totals = weeks.get(key);
+        }
+        if (totals == null) {
+            return;
+        }
+        Meal meal = meals.apply(plan.getMealIdMeals());
+        if (meal == null) {
+            synchronized (weeks) {
+                weeks.remove(key);
+            }
+            return;
+        }
+        synchronized (totals) {
+            totals.add(meal, times);
+        }
+    }
+
+    public boolean isMaterialized(int householdId, LocalDate weekStart) {
+        synchronized (weeks) {
+            return weeks.containsKey(new WeekKey(householdId, weekStart));
+        }
+    }
+
+    public ShoppingListTotals get(int householdId, LocalDate weekStart) {
+        synchronized (weeks) {
+            return weeks.get(new WeekKey(householdId, weekStart));
+        }
+    }
+
+    public ShoppingListTotals materialize(int householdId, LocalDate weekStart, List<Plan> plans) {
+        ShoppingListTotals totals = ShoppingListAggregator.aggregate(plans, meals, dictionary);
+        synchronized (weeks) {
+            ShoppingListTotals existing = weeks.putIfAbsent(new WeekKey(householdId, weekStart), totals);
+            return existing != null ? existing : totals;
+        }
+    }
+
+    public void writeTo(ShoppingListTotals totals, ShoppingListWriter writer) throws IOException {
+        synchronized (totals) {
+            totals.writeTo(writer);
+        }
+    }
+
+    public void evict(int householdId, LocalDate weekStart) {
+        synchronized (weeks) {
+            weeks.remove(new WeekKey(householdId, weekStart));
+        }
+    }
+
+    public void invalidate() {
+        synchronized (weeks) {
+            weeks.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (weeks) {
+            return weeks.size();
+        }
+    }
+
+    private static boolean sameWeek(Plan first, Plan second) {
+        return first.getMealDate() != null && second.getMealDate() != null && keyOf(first).equals(keyOf(second));
+    }
+
+    private static WeekKey keyOf(Plan plan) {
+        return new WeekKey(plan.getHouseholdId(), MealCommands.weekStart(plan.getMealDate()));
+    }
+
+    private static class WeekKey {
+        private final int householdId;
+        private final LocalDate weekStart;
+
+        private WeekKey(int householdId, LocalDate weekStart) {
+            this.householdId = householdId;
+            this.weekStart = weekStart;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WeekKey)) {
+                return false;
+            }
+            WeekKey key = (WeekKey) other;
+            return householdId == key.householdId && weekStart.equals(key.weekStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(householdId, weekStart);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package mealplanner;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class IngredientAmount {
+    private static final Pattern AMOUNT = Pattern.compile("^([a-zA-Z ]*[a-zA-Z])\\s+(\\d+(?:\\.\\d+)?)\\s*([a-zA-Z]+)?$");
+
+    private final String name;
+    private final double quantity;
+    private final Unit unit;
+
+    public IngredientAmount(String name, double quantity, Unit unit) {
+        this.name = name;
+        this.quantity = quantity;
+        this.unit = unit;
+    }
+
+    public static IngredientAmount parse(String ingredient) {
+        String trimmed = ingredient.trim();
+        Matcher matcher = AMOUNT.matcher(trimmed);
+        if (!matcher.matches()) {
+            return trimmed.matches("[a-zA-Z ]+") ? new IngredientAmount(trimmed, 1, null) : null;
+        }
+        Unit unit = matcher.group(3) == null ? Unit.PCS : Unit.parse(matcher.group(3));
+        if (unit == null) {
+            return null;
+        }
+        return new IngredientAmount(matcher.group(1).trim(), Double.parseDouble(matcher.group(2)), unit);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public boolean hasUnit() {
+        return unit != null;
+    }
+}
@@ -0,0 +1,57 @@
+package mealplanner;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class IngredientDictionary {
+    private static final IngredientDictionary SHARED = new IngredientDictionary();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    public static IngredientDictionary shared() {
+        return SHARED;
+    }
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = name;
+            names = current;
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    public int[] intern(String[] ingredientNames) {
+        int[] ingredientIds = new int[ingredientNames.length];
+        for (int i = 0; i < ingredientNames.length; i++) {
+            ingredientIds[i] = intern(ingredientNames[i]);
+        }
+        return ingredientIds;
+    }
+
+    public int find(String name) {
+        return ids.getOrDefault(name, -1);
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
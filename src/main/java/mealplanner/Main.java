@@ -1,20 +1,36 @@
 package mealplanner;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class Main {
     private static final String EXIT = "exit";
+
     public static void main(String[] args) throws SQLException {
+        DatabaseManager.createTables();
+        try (MealCommands commands = new MealCommands(DatabaseManager.getDataSource(), new MealCatalog())) {
+            run(commands, args);
+        }
+    }
+
+    private static void run(MealCommands commands, String[] args) {
+        startMetricsReporter();
+        restoreCatalogSnapshot(commands);
+
+        if (args.length > 0) {
+            runHeadless(commands, args);
+            return;
+        }
 
-        try (Connection connection = DatabaseManager.getConnection()) {
+        try {
             Scanner scanner = new Scanner(System.in);
 
-            DatabaseManager.createTables();
             while (true) {
                 System.out.println("What would you like to do (add, show, plan, save, exit)?");
                 String userInput = scanner.nextLine();
@@ -24,22 +40,22 @@ public class Main {
                         System.out.println("Bye!");
                         return;
                     case "add":
-                        addMealToDatabase(connection, scanner);
+                        addMealToDatabase(commands, scanner);
                         System.out.println("The meal has been added!");
                         break;
                     case "show":
-                        printMeals(connection, scanner);
+                        printMeals(commands, scanner);
                         break;
                     case "plan":
-                        printPlannedMeals(connection, scanner);
+                        printPlannedMeals(commands, scanner);
                         break;
                     case "save":
-                        if(!DatabaseManager.isPlanSaved(connection))
+                        if(commands.getWeek(Plan.DEFAULT_HOUSEHOLD, currentWeekStart()).isEmpty())
                         {
                             System.out.println("Unable to save. Plan your meals first.");
                             break;
                         } else {
-                            saveShoppingListToAFile(connection, scanner);
+                            saveShoppingListToAFile(commands, scanner);
                         }
                         break;
                     default:
@@ -52,114 +68,120 @@ public class Main {
         }
     }
 
-    private static void addMealToDatabase(Connection connection, Scanner scanner) {
+    private static void startMetricsReporter() {
+        long period = Long.getLong("mealplanner.metrics.interval", 0);
+        if (period > 0) {
+            boolean json = "json".equalsIgnoreCase(System.getProperty("mealplanner.metrics.format", "text"));
+            Metrics.startReporter(System.err, period, json);
+        }
+    }
+
+    private static void restoreCatalogSnapshot(MealCommands commands) {
+        String snapshot = System.getProperty("mealplanner.catalog.snapshot");
+        if (snapshot != null && Files.exists(Path.of(snapshot))) {
+            try {
+                commands.loadSnapshot(Path.of(snapshot));
+            } catch (IOException e) {
+                System.err.println("Ignoring catalog snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void runHeadless(MealCommands commands, String[] args) {
+        try {
+            BatchRunner runner = new BatchRunner(new CommandDispatcher(commands), System.out);
+            if (!runner.run(args)) {
+                System.exit(1);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void addMealToDatabase(MealCommands commands, Scanner scanner) throws SQLException {
         System.out.println("Which meal do you want to add (breakfast, lunch, dinner)?");
         String category = scanner.nextLine();
-        while (!isValidCategory(category)) {
+        while (!MealCommands.isValidCategory(category)) {
             System.out.println("Wrong meal category! Choose from: breakfast, lunch, dinner.");
             category = scanner.nextLine();
         }
 
         System.out.println("Input the meal's name:");
         String mealName = scanner.nextLine();
-        while (!isValidName(mealName)) {
+        while (!MealCommands.isValidName(mealName)) {
             System.out.println("Wrong format. Use letters only!");
             mealName = scanner.nextLine();
         }
 
         System.out.println("Input the ingredients:");
         String[] ingredients = scanner.nextLine().split(",");
-        while (!isValidIngredients(ingredients)) {
+        while (!MealCommands.isValidIngredients(ingredients)) {
             System.out.println("Wrong format. Use letters only!");
+            ingredients = scanner.nextLine().split(",");
         }
 
-        DatabaseManager.addMeal(connection, category, mealName, ingredients);
+        commands.addMeal(category, mealName, ingredients);
     }
 
-    private static void saveShoppingListToAFile(Connection connection, Scanner scanner) {
+    private static void saveShoppingListToAFile(MealCommands commands, Scanner scanner) {
         try {
             System.out.println("Input a filename:");
             String filename = scanner.nextLine();
 
-            try (PrintWriter printWriter = new PrintWriter(filename)){
-                DatabaseManager.getShoppingListForWeek(connection, printWriter);
-            }
+            commands.saveShoppingList(Plan.DEFAULT_HOUSEHOLD, currentWeekStart(), Path.of(filename));
+            System.out.println("Saved!");
         } catch (SQLException | IOException e) {
             e.printStackTrace();
         }
-        System.out.println("Saved!");
     }
 
-    private static void printPlannedMeals(Connection connection, Scanner scanner) throws SQLException{
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
-
-        for (String day : days) {
-            System.out.println(day);
-
-            List<Meal> breakfastMeals = DatabaseManager.getMealsByCategory(connection, "breakfast");
-            List<Meal> lunchMeals = DatabaseManager.getMealsByCategory(connection, "lunch");
-            List<Meal> dinnerMeals = DatabaseManager.getMealsByCategory(connection, "dinner");
-
-            Collections.sort(breakfastMeals);
-            printMealsNameByCategory(breakfastMeals);
-            System.out.println("Choose the breakfast for " + day + " from the list above:");
-            String breakfastChoice = scanner.nextLine();
-            while (!mealExists(breakfastChoice, breakfastMeals)) {
-                System.out.println("This meal doesn’t exist. Choose a meal from the list above.");
-                breakfastChoice = scanner.nextLine();
-            }
-
-            Collections.sort(lunchMeals);
-            printMealsNameByCategory(lunchMeals);
-            System.out.println("Choose the lunch for " + day + " from the list above:");
-            String lunchChoice = scanner.nextLine();
-            while (!mealExists(lunchChoice, lunchMeals)) {
-                System.out.println("This meal doesn’t exist. Choose a meal from the list above.");
-                lunchChoice = scanner.nextLine();
-            }
+    private static void printPlannedMeals(MealCommands commands, Scanner scanner) throws SQLException{
+        LocalDate weekStart = currentWeekStart();
 
-            Collections.sort(dinnerMeals);
-            printMealsNameByCategory(dinnerMeals);
-            System.out.println("Choose the dinner for " + day + " from the list above:");
-            String dinnerChoice = scanner.nextLine();
-            while (!mealExists(dinnerChoice, dinnerMeals)) {
-                System.out.println("This meal doesn’t exist. Choose a meal from the list above.");
-                dinnerChoice = scanner.nextLine();
-            }
+        Map<String, List<Meal>> meals = AsyncDatabaseManager.await(commands.getMealsAsync("breakfast", "lunch", "dinner"));
+        List<Meal> breakfastMeals = commands.rankMeals(Plan.DEFAULT_HOUSEHOLD, "breakfast", meals.get("breakfast"));
+        List<Meal> lunchMeals = commands.rankMeals(Plan.DEFAULT_HOUSEHOLD, "lunch", meals.get("lunch"));
+        List<Meal> dinnerMeals = commands.rankMeals(Plan.DEFAULT_HOUSEHOLD, "dinner", meals.get("dinner"));
 
-            List<Plan> plans = new ArrayList<>();
-            int breakfastId = DatabaseManager.getMealIdByName(connection, breakfastChoice);
-            int lunchId = DatabaseManager.getMealIdByName(connection, lunchChoice);
-            int dinnerId = DatabaseManager.getMealIdByName(connection, dinnerChoice);
+        for (int offset = 0; offset < 7; offset++) {
+            LocalDate date = weekStart.plusDays(offset);
+            String day = Plan.dayName(date);
+            System.out.println(day);
 
-            plans.add(new Plan(breakfastChoice, "breakfast", breakfastId, day));
-            plans.add(new Plan(lunchChoice, "lunch", lunchId, day));
-            plans.add(new Plan(dinnerChoice, "dinner", dinnerId, day));
+            Meal breakfast = chooseMeal(commands, scanner, breakfastMeals, "breakfast", day);
+            Meal lunch = chooseMeal(commands, scanner, lunchMeals, "lunch", day);
+            Meal dinner = chooseMeal(commands, scanner, dinnerMeals, "dinner", day);
 
-            DatabaseManager.savePlan(connection, plans);
+            commands.planDay(Plan.DEFAULT_HOUSEHOLD, date, breakfast.getName(), lunch.getName(), dinner.getName());
             System.out.println("Yeah! We planned the meals for " + day + ".\n");
         }
-        printWeeklyPlan(connection);
+        printWeeklyPlan(commands);
     }
 
-    private static boolean mealExists(String mealChoice, List<Meal> meals) {
-        for (Meal meal : meals) {
-            if (meal.getName().equalsIgnoreCase(mealChoice)) {
-                return true;
-            }
+    private static Meal chooseMeal(MealCommands commands, Scanner scanner, List<Meal> meals,
+                                   String category, String day) throws SQLException {
+        printMealsNameByCategory(meals);
+        System.out.println("Choose the " + category + " for " + day + " from the list above:");
+        Meal meal = commands.findMeal(category, scanner.nextLine());
+        while (meal == null) {
+            System.out.println("This meal doesn’t exist. Choose a meal from the list above.");
+            meal = commands.findMeal(category, scanner.nextLine());
         }
-        return false;
+        return meal;
     }
 
-    public static void printMeals(Connection connection, Scanner scanner) throws SQLException {
+    public static void printMeals(MealCommands commands, Scanner scanner) throws SQLException {
         System.out.println("Which category do you want to print (breakfast, lunch, dinner)?");
         String categoryChoice = scanner.nextLine();
-        while (!isValidCategory(categoryChoice)) {
+        while (!MealCommands.isValidCategory(categoryChoice)) {
             System.out.println("Wrong meal category! Choose from: breakfast, lunch, dinner.");
             categoryChoice = scanner.nextLine();
         }
 
-        List<Meal> mealsByCategory = DatabaseManager.getMealsByCategory(connection, categoryChoice);
+        List<Meal> mealsByCategory = commands.getMeals(categoryChoice);
         showMeals(mealsByCategory, categoryChoice);
     }
     public static void showMeals(List<Meal> meals, String categoryChoice) throws SQLException{
@@ -168,8 +190,8 @@ public class Main {
             for (Meal meal : meals) {
                 System.out.println("Name: " + meal.getName());
                 System.out.println("Ingredients:");
-                for (int i = 0; i < meal.getIngredients().length; i++) {
-                    System.out.println(meal.getIngredients()[i]);
+                for (int i = 0; i < meal.getIngredientIds().length; i++) {
+                    System.out.println(meal.describeIngredient(i));
                 }
 
             }
@@ -183,33 +205,25 @@ public class Main {
         }
     }
 
-    public static void printWeeklyPlan(Connection connection) throws SQLException {
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    public static void printWeeklyPlan(MealCommands commands) throws SQLException {
+        LocalDate weekStart = currentWeekStart();
+        List<Plan> plans = commands.getWeek(Plan.DEFAULT_HOUSEHOLD, weekStart);
+        Map<String, String> mealOptions = new HashMap<>();
+        for (Plan plan : plans) {
+            mealOptions.put(plan.getMealDate() + plan.getMealCategory(), plan.getMealOption());
+        }
 
-        for (String day : days) {
-            System.out.println(day);
-            System.out.println("Breakfast: " + DatabaseManager.getMealOptionForDay(connection, day, "breakfast"));
-            System.out.println("Lunch: " + DatabaseManager.getMealOptionForDay(connection, day, "lunch"));
-            System.out.println("Dinner: " + DatabaseManager.getMealOptionForDay(connection, day, "dinner"));
+        for (int offset = 0; offset < 7; offset++) {
+            LocalDate date = weekStart.plusDays(offset);
+            System.out.println(Plan.dayName(date));
+            System.out.println("Breakfast: " + mealOptions.getOrDefault(date + "breakfast", "Not planned"));
+            System.out.println("Lunch: " + mealOptions.getOrDefault(date + "lunch", "Not planned"));
+            System.out.println("Dinner: " + mealOptions.getOrDefault(date + "dinner", "Not planned"));
             System.out.println();
         }
     }
 
-    private static boolean isValidCategory(String category) {
-        return category.equals("breakfast") || category.equals("lunch") || category.equals("dinner");
-    }
-
-    private static boolean isValidName(String name) {
-        return name.matches("^[a-zA-Z ]+$");
-    }
-
-    private static boolean isValidIngredients(String[] ingredients) {
-        for (String ingredient : ingredients) {
-            ingredient = ingredient.trim();
-            if (ingredient.isEmpty() || !ingredient.matches("[a-zA-Z ]+")) {
-                return false;
-            }
-        }
-        return true;
+    private static LocalDate currentWeekStart() {
+        return MealCommands.weekStart(LocalDate.now());
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,58 @@
 package mealplanner;
 
 public class Meal implements Comparable<Meal>{
+    private int id;
     private String name;
     private String category;
-    private String[] ingredients;
+    private int[] ingredientIds;
+    private double[] quantities;
+    private Unit[] units;
+    private IngredientDictionary dictionary;
 
     public Meal(String name, String category, String[] ingredients) {
+        this(0, name, category, ingredients);
+    }
+
+    public Meal(int id, String name, String category, String[] ingredients) {
+        this(id, name, category, IngredientDictionary.shared().intern(ingredients), IngredientDictionary.shared());
+    }
+
+    public Meal(int id, String name, String category, int[] ingredientIds, IngredientDictionary dictionary) {
+        this(id, name, category, ingredientIds, null, null, dictionary);
+    }
+
+    public Meal(int id, String name, String category, int[] ingredientIds, double[] quantities, Unit[] units,
+                IngredientDictionary dictionary) {
+        this.id = id;
         this.name = name;
         this.category = category;
-        this.ingredients = ingredients;
+        this.ingredientIds = ingredientIds;
+        this.quantities = quantities;
+        this.units = units;
+        this.dictionary = dictionary;
+    }
+
+    public static Meal fromAmounts(int id, String name, String category, IngredientAmount[] amounts,
+                                   IngredientDictionary dictionary) {
+        int[] ingredientIds = new int[amounts.length];
+        double[] quantities = null;
+        Unit[] units = null;
+        for (int i = 0; i < amounts.length; i++) {
+            ingredientIds[i] = dictionary.intern(amounts[i].getName());
+            if (amounts[i].hasUnit()) {
+                if (units == null) {
+                    quantities = new double[amounts.length];
+                    units = new Unit[amounts.length];
+                }
+                quantities[i] = amounts[i].getQuantity();
+                units[i] = amounts[i].getUnit();
+            }
+        }
+        return new Meal(id, name, category, ingredientIds, quantities, units, dictionary);
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getName() {
@@ -20,9 +64,45 @@ public class Meal implements Comparable<Meal>{
     }
 
     public String[] getIngredients() {
+        String[] ingredients = new String[ingredientIds.length];
+        for (int i = 0; i < ingredientIds.length; i++) {
+            ingredients[i] = dictionary.name(ingredientIds[i]);
+        }
         return ingredients;
     }
 
+    public int[] getIngredientIds() {
+        return ingredientIds;
+    }
+
+    public Unit getUnit(int index) {
+        return units == null ? null : units[index];
+    }
+
+    public double getQuantity(int index) {
+        return units == null || units[index] == null ? 1 : quantities[index];
+    }
+
+    public Unit.Dimension getDimension(int index) {
+        Unit unit = getUnit(index);
+        return unit == null ? Unit.Dimension.COUNT : unit.getDimension();
+    }
+
+    public double getBaseQuantity(int index) {
+        Unit unit = getUnit(index);
+        return unit == null ? 1 : unit.toBase(quantities[index]);
+    }
+
+    public String describeIngredient(int index) {
+        String ingredient = dictionary.name(ingredientIds[index]);
+        Unit unit = getUnit(index);
+        return unit == null ? ingredient : ingredient + " " + Quantities.format(quantities[index]) + " " + unit.getSymbol();
+    }
+
+    public IngredientDictionary getDictionary() {
+        return dictionary;
+    }
+
     @Override
     public int compareTo(Meal otherMeal) {
         return this.getName().compareToIgnoreCase(otherMeal.getName());
@@ -0,0 +1,193 @@
+package mealplanner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MealCatalog implements MealCatalogMBean {
+    private static final int MAX_ARRAY_SLACK = 4;
+
+    private final Object lock = new Object();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public List<Meal> getMeals(Connection connection) throws SQLException {
+        List<Meal> meals = new ArrayList<>(ensureLoaded(connection).mealsById.values());
+        Collections.sort(meals);
+        return meals;
+    }
+
+    public List<Meal> getMealsByCategory(Connection connection, String category) throws SQLException {
+        return ensureLoaded(connection).mealsByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public Meal findByName(Connection connection, String category, String mealName) throws SQLException {
+        return ensureLoaded(connection).mealsByName.get(nameKey(category, mealName));
+    }
+
+    public Map<Integer, Meal> getMealsById(Connection connection) throws SQLException {
+        return Collections.unmodifiableMap(ensureLoaded(connection).mealsById);
+    }
+
+    public Meal findById(Connection connection, int mealId) throws SQLException {
+        return ensureLoaded(connection).mealsById.get(mealId);
+    }
+
+    public Meal peekById(int mealId) {
+        Snapshot current = snapshot;
+        return current == null ? null : current.peek(mealId);
+    }
+
+    public void mealAdded(Meal meal) {
+        mealsAdded(List.of(meal));
+    }
+
+    public void mealsAdded(List<Meal> meals) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current == null || meals.isEmpty()) {
+                return;
+            }
+            Map<String, List<Meal>> categories = new HashMap<>(current.mealsByCategory);
+            Map<String, Meal> names = new HashMap<>(current.mealsByName);
+            Map<Integer, Meal> ids = new HashMap<>(current.mealsById);
+            Map<String, List<Meal>> addedByCategory = new HashMap<>();
+            for (Meal meal : meals) {
+                if (ids.putIfAbsent(meal.getId(), meal) != null) {
+                    continue;
+                }
+                addedByCategory.computeIfAbsent(meal.getCategory(), category -> new ArrayList<>()).add(meal);
+                names.putIfAbsent(nameKey(meal.getCategory(), meal.getName()), meal);
+            }
+            if (addedByCategory.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, List<Meal>> added : addedByCategory.entrySet()) {
+                List<Meal> categoryMeals = new ArrayList<>(categories.getOrDefault(added.getKey(), List.of()));
+                categoryMeals.addAll(added.getValue());
+                Collections.sort(categoryMeals);
+                categories.put(added.getKey(), Collections.unmodifiableList(categoryMeals));
+            }
+            snapshot = new Snapshot(categories, names, ids);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        synchronized (lock) {
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.mealsById.size();
+    }
+
+    private static String nameKey(String category, String mealName) {
+        return category + ':' + mealName.toLowerCase(Locale.ROOT);
+    }
+
+    private Snapshot ensureLoaded(Connection connection) throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        synchronized (lock) {
+            current = snapshot;
+            if (current != null) {
+                hits.incrementAndGet();
+                return current;
+            }
+            misses.incrementAndGet();
+            return publish(DatabaseManager.getMeals(connection));
+        }
+    }
+
+    void load(List<Meal> meals) {
+        publish(meals);
+    }
+
+    private Snapshot publish(List<Meal> meals) {
+        synchronized (lock) {
+            Map<String, List<Meal>> categories = new HashMap<>();
+            Map<String, Meal> names = new HashMap<>();
+            Map<Integer, Meal> ids = new HashMap<>();
+            for (Meal meal : meals) {
+                categories.computeIfAbsent(meal.getCategory(), category -> new ArrayList<>()).add(meal);
+                names.putIfAbsent(nameKey(meal.getCategory(), meal.getName()), meal);
+                ids.put(meal.getId(), meal);
+            }
+            for (Map.Entry<String, List<Meal>> entry : categories.entrySet()) {
+                Collections.sort(entry.getValue());
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            snapshot = new Snapshot(categories, names, ids);
+            return snapshot;
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<String, List<Meal>> mealsByCategory;
+        private final Map<String, Meal> mealsByName;
+        private final Map<Integer, Meal> mealsById;
+        private final Meal[] mealArray;
+
+        private Snapshot(Map<String, List<Meal>> mealsByCategory, Map<String, Meal> mealsByName,
+                         Map<Integer, Meal> mealsById) {
+            this.mealsByCategory = mealsByCategory;
+            this.mealsByName = mealsByName;
+            this.mealsById = mealsById;
+            int maxId = -1;
+            for (int mealId : mealsById.keySet()) {
+                maxId = Math.max(maxId, mealId);
+            }
+            if (maxId >= 0 && maxId < MAX_ARRAY_SLACK * mealsById.size() + MAX_ARRAY_SLACK) {
+                mealArray = new Meal[maxId + 1];
+                for (Meal meal : mealsById.values()) {
+                    if (meal.getId() >= 0) {
+                        mealArray[meal.getId()] = meal;
+                    }
+                }
+            } else {
+                mealArray = null;
+            }
+        }
+
+        private Meal peek(int mealId) {
+            if (mealArray == null) {
+                return mealsById.get(mealId);
+            }
+            return mealId >= 0 && mealId < mealArray.length ? mealArray[mealId] : null;
+        }
+    }
+}
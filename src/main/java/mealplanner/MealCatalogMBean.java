@@ -0,0 +1,14 @@
+package mealplanner;
+
+public interface MealCatalogMBean {
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRate();
+
+    int getSize();
+
+    void invalidate();
+}
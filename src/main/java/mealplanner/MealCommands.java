@@ -0,0 +1,395 @@
+package mealplanner;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class MealCommands implements AutoCloseable {
+    private static final int SHOPPING_LIST_WEEKS = 1_024;
+    private static final int RECOMMENDATION_HOUSEHOLDS = 1_024;
+    private static final int RECOMMENDATION_MEALS_PER_CATEGORY = 64;
+    private static final double RECOMMENDATION_HALF_LIFE_DAYS = 28;
+    private static final int RECOMMENDATION_HISTORY_DAYS = 365;
+
+    private final DataSource dataSource;
+    private final AsyncDatabaseManager async;
+    private final MealCatalog catalog;
+    private final IncrementalShoppingList shoppingList;
+    private final MealRecommendations recommendations = new MealRecommendations(RECOMMENDATION_HOUSEHOLDS,
+            RECOMMENDATION_MEALS_PER_CATEGORY, RECOMMENDATION_HALF_LIFE_DAYS);
+    private final ReadWriteLock planWrites = new ReentrantReadWriteLock();
+    private final Object searchLock = new Object();
+    private volatile MealSearchIndex searchIndex;
+    private final AtomicLong nutritionVersion = new AtomicLong();
+    private final AtomicLong mealVersion = new AtomicLong();
+    private final AtomicReference<CompiledNutrition> nutrition = new AtomicReference<>();
+    private final Consumer<List<Meal>> catalogListener;
+    private final Consumer<List<Meal>> indexListener = this::indexMeals;
+
+    public MealCommands(DataSource dataSource, MealCatalog catalog) {
+        this.dataSource = dataSource;
+        this.async = new AsyncDatabaseManager(dataSource);
+        this.catalog = catalog;
+        this.shoppingList = new IncrementalShoppingList(catalog::peekById, IngredientDictionary.shared(),
+                SHOPPING_LIST_WEEKS);
+        this.catalogListener = catalog::mealsAdded;
+        Metrics.registerCatalog(catalog);
+        DatabaseManager.addMealListener(catalogListener);
+        DatabaseManager.addPlanListener(shoppingList);
+        DatabaseManager.addPlanListener(recommendations);
+        DatabaseManager.addMealListener(indexListener);
+    }
+
+    @Override
+    public void close() {
+        DatabaseManager.removeMealListener(catalogListener);
+        DatabaseManager.removePlanListener(shoppingList);
+        DatabaseManager.removePlanListener(recommendations);
+        DatabaseManager.removeMealListener(indexListener);
+        async.close();
+    }
+
+    private void indexMeals(List<Meal> meals) {
+        mealVersion.incrementAndGet();
+        synchronized (searchLock) {
+            if (searchIndex != null) {
+                for (Meal meal : meals) {
+                    searchIndex.add(meal);
+                }
+            }
+        }
+    }
+
+    public MealCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Meal addMeal(String category, String mealName, String[] ingredients) throws SQLException {
+        if (!isValidCategory(category)) {
+            throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+        }
+        if (!isValidName(mealName) || !isValidIngredients(ingredients)) {
+            throw new IllegalArgumentException("Wrong format. Use letters only!");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            int mealId = DatabaseManager.addMeal(connection, category, mealName, ingredients);
+            Meal meal = catalog.findById(connection, mealId);
+            return meal != null ? meal : new Meal(mealId, mealName, category, ingredients);
+        }
+    }
+
+    public List<Meal> getMeals(String category) throws SQLException {
+        if (!isValidCategory(category)) {
+            throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return catalog.getMealsByCategory(connection, category);
+        }
+    }
+
+    public CompletableFuture<Map<String, List<Meal>>> getMealsAsync(String... categories) {
+        Map<String, CompletableFuture<List<Meal>>> futures = new LinkedHashMap<>();
+        for (String category : categories) {
+            if (!isValidCategory(category)) {
+                throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+            }
+            futures.computeIfAbsent(category,
+                    key -> async.submit(connection -> catalog.getMealsByCategory(connection, key)));
+        }
+        return AsyncDatabaseManager.allOf(futures);
+    }
+
+    public List<Meal> rankMeals(int householdId, String category, List<Meal> meals) throws SQLException {
+        ensureRecommendations(householdId);
+        return recommendations.order(householdId, category, meals);
+    }
+
+    public List<Meal> suggestMeals(int householdId, String category, int limit) throws SQLException {
+        if (!isValidCategory(category)) {
+            throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+        }
+        ensureRecommendations(householdId);
+        List<Meal> suggestions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int mealId : recommendations.ranked(householdId, category, limit)) {
+                Meal meal = catalog.findById(connection, mealId);
+                if (meal != null) {
+                    suggestions.add(meal);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    private void ensureRecommendations(int householdId) throws SQLException {
+        LocalDate today = LocalDate.now();
+        if (recommendations.isMaterialized(householdId, today)) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            planWrites.writeLock().lock();
+            try {
+                recommendations.materialize(householdId, today, DatabaseManager.getPlans(connection, householdId,
+                        today.minusDays(RECOMMENDATION_HISTORY_DAYS), today));
+            } finally {
+                planWrites.writeLock().unlock();
+            }
+        }
+    }
+
+    public Meal findMeal(String category, String mealName) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return catalog.findByName(connection, category, mealName);
+        }
+    }
+
+    public int importCatalog(Path source) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            return CatalogTransfer.importFile(connection, source);
+        }
+    }
+
+    public int exportCatalog(Path target) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            return CatalogTransfer.exportFile(DatabaseManager.getMeals(connection), target);
+        }
+    }
+
+    public int saveSnapshot(Path target) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            List<Meal> meals = catalog.getMeals(connection);
+            MealSnapshot.write(target, meals);
+            return meals.size();
+        }
+    }
+
+    public int loadSnapshot(Path source) throws IOException {
+        List<Meal> meals = MealSnapshot.read(source, IngredientDictionary.shared());
+        synchronized (searchLock) {
+            catalog.load(meals);
+            searchIndex = null;
+        }
+        mealVersion.incrementAndGet();
+        shoppingList.invalidate();
+        return meals.size();
+    }
+
+    public List<Meal> search(MealQuery query) throws SQLException {
+        if (query.getCategory() != null && !isValidCategory(query.getCategory())) {
+            throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+        }
+        MealSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (searchLock) {
+                index = searchIndex;
+                if (index == null) {
+                    try (Connection connection = dataSource.getConnection()) {
+                        index = MealSearchIndex.build(catalog.getMeals(connection), IngredientDictionary.shared());
+                    }
+                    searchIndex = index;
+                }
+            }
+        }
+        return index.search(query);
+    }
+
+    public List<Plan> planDay(int householdId, LocalDate date, String breakfast, String lunch, String dinner)
+            throws SQLException {
+        List<Plan> plans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            plans.add(toPlan(connection, householdId, date, "breakfast", breakfast));
+            plans.add(toPlan(connection, householdId, date, "lunch", lunch));
+            plans.add(toPlan(connection, householdId, date, "dinner", dinner));
+            planWrites.readLock().lock();
+            try {
+                DatabaseManager.savePlan(connection, plans);
+            } finally {
+                planWrites.readLock().unlock();
+            }
+        }
+        return plans;
+    }
+
+    public Plan replaceSlot(int householdId, LocalDate date, String category, String mealName) throws SQLException {
+        if (!isValidCategory(category)) {
+            throw new IllegalArgumentException("Wrong meal category! Choose from: breakfast, lunch, dinner.");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            Plan plan = toPlan(connection, householdId, date, category, mealName);
+            planWrites.readLock().lock();
+            try {
+                DatabaseManager.replacePlanSlot(connection, plan);
+            } finally {
+                planWrites.readLock().unlock();
+            }
+            return plan;
+        }
+    }
+
+    public void removeSlot(int householdId, LocalDate date, String category) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            planWrites.readLock().lock();
+            try {
+                DatabaseManager.removePlanSlot(connection, householdId, date, category);
+            } finally {
+                planWrites.readLock().unlock();
+            }
+        }
+    }
+
+    private Plan toPlan(Connection connection, int householdId, LocalDate date, String category, String mealName)
+            throws SQLException {
+        Meal meal = mealName == null ? null : catalog.findByName(connection, category, mealName);
+        if (meal == null) {
+            throw new IllegalArgumentException("This meal doesn’t exist: " + mealName);
+        }
+        return new Plan(householdId, date, meal.getName(), category, meal.getId());
+    }
+
+    public List<Plan> generateWeek(int householdId, LocalDate weekStart, PlanConstraints constraints)
+            throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            List<Plan> plans = new PlanGenerator(catalog.getMeals(connection), constraints)
+                    .generateWeeks(householdId, weekStart, 1).get(0);
+            planWrites.readLock().lock();
+            try {
+                DatabaseManager.savePlan(connection, plans);
+            } finally {
+                planWrites.readLock().unlock();
+            }
+            return plans;
+        }
+    }
+
+    public List<Plan> getWeek(int householdId, LocalDate weekStart) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return DatabaseManager.getPlans(connection, householdId, weekStart, weekStart.plusDays(6));
+        }
+    }
+
+    public boolean isPlanSaved() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return DatabaseManager.isPlanSaved(connection);
+        }
+    }
+
+    public void saveShoppingList(int householdId, LocalDate weekStart, Path file) throws SQLException, IOException {
+        ShoppingListTotals totals = shoppingList.get(householdId, weekStart);
+        if (totals == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                catalog.getMealsById(connection);
+                planWrites.writeLock().lock();
+                try {
+                    totals = shoppingList.materialize(householdId, weekStart,
+                            DatabaseManager.getPlans(connection, householdId, weekStart, weekStart.plusDays(6)));
+                } finally {
+                    planWrites.writeLock().unlock();
+                }
+            }
+        }
+        ShoppingListTotals materialized = totals;
+        ShoppingListExporter.export(file, ShoppingListFormat.forFileName(file.toString())::newWriter,
+                writer -> shoppingList.writeTo(materialized, writer));
+    }
+
+    public ShoppingListTotals getShoppingList(int[] householdIds, LocalDate from, LocalDate to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Map<Integer, List<Plan>> plans = DatabaseManager.getPlans(connection, householdIds, from, to);
+            catalog.getMealsById(connection);
+            return ShoppingListAggregator.aggregateParallel(plans.values(), catalog::peekById,
+                    IngredientDictionary.shared());
+        }
+    }
+
+    public void setNutrition(String ingredient, String per, Map<Nutrient, Double> values) throws SQLException {
+        IngredientAmount basis = IngredientAmount.parse(per == null ? ingredient : ingredient + " " + per);
+        if (basis == null || !isValidName(basis.getName()) || basis.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Wrong format. Use an ingredient name and an amount such as 100 g");
+        }
+        Unit.Dimension dimension = basis.hasUnit() ? basis.getUnit().getDimension() : Unit.Dimension.COUNT;
+        double baseQuantity = basis.hasUnit() ? basis.getUnit().toBase(basis.getQuantity()) : basis.getQuantity();
+        double[] valuesPerBaseUnit = new double[Nutrient.values().length];
+        for (Map.Entry<Nutrient, Double> value : values.entrySet()) {
+            valuesPerBaseUnit[value.getKey().ordinal()] = value.getValue() / baseQuantity;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseManager.saveNutrition(connection, basis.getName(), dimension, valuesPerBaseUnit);
+        }
+        nutritionVersion.incrementAndGet();
+    }
+
+    public NutritionRollup nutritionReport(int[] householdIds, LocalDate from, LocalDate to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            MealNutrition.Rollup rollup = mealNutrition(connection).newRollup(from, to);
+            DatabaseManager.streamPlannedMeals(connection, householdIds, from, to, rollup);
+            return rollup.build();
+        }
+    }
+
+    private MealNutrition mealNutrition(Connection connection) throws SQLException {
+        long nutritionSeen = nutritionVersion.get();
+        long mealsSeen = mealVersion.get();
+        CompiledNutrition cached = nutrition.get();
+        if (cached != null && cached.nutritionVersion == nutritionSeen && cached.mealVersion == mealsSeen) {
+            return cached.meals;
+        }
+        NutritionTable table = cached != null && cached.nutritionVersion == nutritionSeen ? cached.table
+                : DatabaseManager.getNutrition(connection, IngredientDictionary.shared());
+        MealNutrition meals = table.compile(catalog.getMealsById(connection).values());
+        nutrition.compareAndSet(cached, new CompiledNutrition(nutritionSeen, mealsSeen, table, meals));
+        return meals;
+    }
+
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    public static boolean isValidCategory(String category) {
+        return category.equals("breakfast") || category.equals("lunch") || category.equals("dinner");
+    }
+
+    public static boolean isValidName(String name) {
+        return name.matches("^[a-zA-Z ]+$");
+    }
+
+    public static boolean isValidIngredients(String[] ingredients) {
+        if (ingredients.length == 0) {
+            return false;
+        }
+        for (String ingredient : ingredients) {
+            if (ingredient.trim().isEmpty() || IngredientAmount.parse(ingredient) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class CompiledNutrition {
+        private final long nutritionVersion;
+        private final long mealVersion;
+        private final NutritionTable table;
+        private final MealNutrition meals;
+
+        private CompiledNutrition(long nutritionVersion, long mealVersion, NutritionTable table, MealNutrition meals) {
+            this.nutritionVersion = nutritionVersion;
+            this.mealVersion = mealVersion;
+            this.table = table;
+            this.meals = meals;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package mealplanner;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class MealNutrition {
+    private static final Nutrient[] NUTRIENTS = Nutrient.values();
+
+    private final double[][] columns;
+    private final boolean[] complete;
+
+    MealNutrition(double[][] columns, boolean[] complete) {
+        this.columns = columns;
+        this.complete = complete;
+    }
+
+    public boolean has(int mealId) {
+        return mealId >= 0 && mealId < complete.length;
+    }
+
+    public boolean isComplete(int mealId) {
+        return has(mealId) && complete[mealId];
+    }
+
+    public double get(Nutrient nutrient, int mealId) {
+        return has(mealId) ? columns[nutrient.ordinal()][mealId] : 0;
+    }
+
+    public NutritionRollup rollup(Map<Integer, List<Plan>> plansByHousehold, LocalDate from, LocalDate to) {
+        int days = reportDays(from, to);
+        int[] householdIds = plansByHousehold.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        double[][] householdTotals = new double[NUTRIENTS.length][householdIds.length];
+
+        Accumulator totals = IntStream.range(0, householdIds.length).parallel().collect(
+                () -> new Accumulator(days),
+                (accumulator, household) -> accumulator.add(plansByHousehold.get(householdIds[household]),
+                        from.toEpochDay(), household, householdTotals),
+                Accumulator::merge);
+        return new NutritionRollup(from, days, householdIds, householdTotals, totals.daily, totals.plans,
+                totals.incompletePlans);
+    }
+
+    public Rollup newRollup(LocalDate from, LocalDate to) {
+        return new Rollup(from, reportDays(from, to));
+    }
+
+    private static int reportDays(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Report ends before it starts: " + from + " to " + to);
+        }
+        return (int) ChronoUnit.DAYS.between(from, to) + 1;
+    }
+
+    public class Rollup implements PlannedMealSink {
+        private final LocalDate from;
+        private final long firstEpochDay;
+        private final int days;
+        private final double[][] daily;
+        private final Map<Integer, Integer> householdSlots = new HashMap<>();
+        private int[] householdIds = new int[64];
+        private double[][] householdTotals = new double[NUTRIENTS.length][64];
+        private int households;
+        private int lastHouseholdId;
+        private int lastSlot = -1;
+        private long plans;
+        private long incompletePlans;
+
+        private Rollup(LocalDate from, int days) {
+            this.from = from;
+            this.firstEpochDay = from.toEpochDay();
+            this.days = days;
+            this.daily = new double[NUTRIENTS.length][days];
+        }
+
+        @Override
+        public void add(int householdId, LocalDate mealDate, int mealId) {
+            int slot = slotOf(householdId);
+            if (mealDate == null) {
+                return;
+            }
+            long day = mealDate.toEpochDay() - firstEpochDay;
+            if (day < 0 || day >= days) {
+                return;
+            }
+            if (!isComplete(mealId)) {
+                incompletePlans++;
+                if (!has(mealId)) {
+                    return;
+                }
+            }
+            plans++;
+            for (int nutrient = 0; nutrient < columns.length; nutrient++) {
+                double value = columns[nutrient][mealId];
+                daily[nutrient][(int) day] += value;
+                householdTotals[nutrient][slot] += value;
+            }
+        }
+
+        public NutritionRollup build() {
+            int[] sortedIds = Arrays.copyOf(householdIds, households);
+            Arrays.sort(sortedIds);
+            double[][] sortedTotals = new double[NUTRIENTS.length][households];
+            for (int i = 0; i < households; i++) {
+                int slot = householdSlots.get(sortedIds[i]);
+                for (int nutrient = 0; nutrient < sortedTotals.length; nutrient++) {
+                    sortedTotals[nutrient][i] = householdTotals[nutrient][slot];
+                }
+            }
+            return new NutritionRollup(from, days, sortedIds, sortedTotals, daily, plans, incompletePlans);
+        }
+
+        private int slotOf(int householdId) {
+            if (lastSlot >= 0 && householdId == lastHouseholdId) {
+                return lastSlot;
+            }
+            Integer slot = householdSlots.get(householdId);
+            if (slot == null) {
+                slot = households++;
+                if (slot == householdIds.length) {
+                    householdIds = Arrays.copyOf(householdIds, slot * 2);
+                    for (int nutrient = 0; nutrient < householdTotals.length; nutrient++) {
+                        householdTotals[nutrient] = Arrays.copyOf(householdTotals[nutrient], slot * 2);
+                    }
+                }
+                householdIds[slot] = householdId;
+                householdSlots.put(householdId, slot);
+            }
+            lastHouseholdId = householdId;
+            lastSlot = slot;
+            return slot;
+        }
+    }
+
+    private class Accumulator {
+        private final int days;
+        private final double[][] daily;
+        private int[] mealIds = new int[64];
+        private int[] dayIndexes = new int[64];
+        private long plans;
+        private long incompletePlans;
+
+        private Accumulator(int days) {
+            this.days = days;
+            this.daily = new double[NUTRIENTS.length][days];
+        }
+
+        private void add(List<Plan> householdPlans, long firstEpochDay, int household, double[][] householdTotals) {
+            if (householdPlans.size() > mealIds.length) {
+                mealIds = new int[householdPlans.size()];
+                dayIndexes = new int[householdPlans.size()];
+            }
+            int count = 0;
+            for (Plan plan : householdPlans) {
+                if (plan.getMealDate() == null) {
+                    continue;
+                }
+                long day = plan.getMealDate().toEpochDay() - firstEpochDay;
+                if (day < 0 || day >= days) {
+                    continue;
+                }
+                int mealId = plan.getMealIdMeals();
+                if (!isComplete(mealId)) {
+                    incompletePlans++;
+                    if (!has(mealId)) {
+                        continue;
+                    }
+                }
+                mealIds[count] = mealId;
+                dayIndexes[count++] = (int) day;
+            }
+            plans += count;
+
+            for (int nutrient = 0; nutrient < columns.length; nutrient++) {
+                double[] mealColumn = columns[nutrient];
+                double[] dailyColumn = daily[nutrient];
+                double sum = 0;
+                for (int i = 0; i < count; i++) {
+                    double value = mealColumn[mealIds[i]];
+                    dailyColumn[dayIndexes[i]] += value;
+                    sum += value;
+                }
+                householdTotals[nutrient][household] = sum;
+            }
+        }
+
+        private void merge(Accumulator other) {
+            for (int nutrient = 0; nutrient < daily.length; nutrient++) {
+                double[] dailyColumn = daily[nutrient];
+                double[] otherColumn = other.daily[nutrient];
+                for (int day = 0; day < dailyColumn.length; day++) {
+                    dailyColumn[day] += otherColumn[day];
+                }
+            }
+            plans += other.plans;
+            incompletePlans += other.incompletePlans;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package mealplanner;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class MealQuery {
+    private String category;
+    private String namePrefix;
+    private String fuzzyName;
+    private int maxEditDistance = 2;
+    private final Set<String> containsIngredients = new LinkedHashSet<>();
+    private final Set<String> excludesIngredients = new LinkedHashSet<>();
+    private int limit = Integer.MAX_VALUE;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public MealQuery setCategory(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public MealQuery setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix == null ? null : namePrefix.toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    public String getFuzzyName() {
+        return fuzzyName;
+    }
+
+    public MealQuery setFuzzyName(String fuzzyName) {
+        this.fuzzyName = fuzzyName == null ? null : fuzzyName.toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    public MealQuery setMaxEditDistance(int maxEditDistance) {
+        this.maxEditDistance = maxEditDistance;
+        return this;
+    }
+
+    public Set<String> getContainsIngredients() {
+        return containsIngredients;
+    }
+
+    public MealQuery contains(String ingredient) {
+        containsIngredients.add(ingredient.trim());
+        return this;
+    }
+
+    public Set<String> getExcludesIngredients() {
+        return excludesIngredients;
+    }
+
+    public MealQuery excludes(String ingredient) {
+        excludesIngredients.add(ingredient.trim());
+        return this;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public MealQuery setLimit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+}
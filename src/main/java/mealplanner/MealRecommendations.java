@@ -0,0 +1,214 @@
+package mealplanner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MealRecommendations implements PlanListener {
+    private static final double MIN_SCORE = 1e-9;
+
+    private final int maxMealsPerCategory;
+    private final double halfLifeDays;
+    private final Map<Integer, HouseholdScores> households;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public MealRecommendations(int maxHouseholds, int maxMealsPerCategory, double halfLifeDays) {
+        this.maxMealsPerCategory = maxMealsPerCategory;
+        this.halfLifeDays = halfLifeDays;
+        this.households = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, HouseholdScores> eldest) {
+                return size() > maxHouseholds;
+            }
+        };
+    }
+
+    @Override
+    public void planChanged(Plan previous, Plan current) {
+        if (previous != null && current != null && previous.getMealIdMeals() == current.getMealIdMeals()
+                && previous.getMealDate() != null && previous.getMealDate().equals(current.getMealDate())
+                && previous.getMealCategory().equals(current.getMealCategory())) {
+            return;
+        }
+        apply(previous, -1);
+        apply(current, 1);
+    }
+
+    private void apply(Plan plan, int sign) {
+        if (plan == null || plan.getMealDate() == null) {
+            return;
+        }
+        HouseholdScores scores;
+        synchronized (households) {
+            scores = households.get(plan.getHouseholdId());
+        }
+        if (scores != null) {
+            synchronized (scores) {
+                scores.add(plan, sign);
+            }
+        }
+    }
+
+    public boolean isMaterialized(int householdId, LocalDate today) {
+        synchronized (households) {
+            HouseholdScores scores = households.get(householdId);
+            return scores != null && scores.today == today.toEpochDay();
+        }
+    }
+
+    public void materialize(int householdId, LocalDate today, List<Plan> history) {
+        HouseholdScores scores = new HouseholdScores(today.toEpochDay());
+        for (Plan plan : history) {
+            if (plan.getMealDate() != null) {
+                scores.add(plan, 1);
+            }
+        }
+        synchronized (households) {
+            HouseholdScores existing = households.get(householdId);
+            if (existing == null || existing.today < scores.today) {
+                households.put(householdId, scores);
+            }
+        }
+    }
+
+    public int[] ranked(int householdId, String category, int limit) {
+        HouseholdScores scores;
+        synchronized (households) {
+            scores = households.get(householdId);
+        }
+        if (scores == null) {
+            misses.incrementAndGet();
+            return new int[0];
+        }
+        hits.incrementAndGet();
+        synchronized (scores) {
+            CategoryScores categoryScores = scores.categories.get(category);
+            if (categoryScores == null) {
+                return new int[0];
+            }
+            int[] ranked = categoryScores.ranked();
+            return ranked.length <= limit ? ranked.clone() : Arrays.copyOf(ranked, limit);
+        }
+    }
+
+    public List<Meal> order(int householdId, String category, List<Meal> meals) {
+        int[] ranked = ranked(householdId, category, Integer.MAX_VALUE);
+        if (ranked.length == 0) {
+            return meals;
+        }
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ranked.length; i++) {
+            positions.put(ranked[i], i);
+        }
+        Meal[] favorites = new Meal[ranked.length];
+        List<Meal> others = new ArrayList<>(meals.size());
+        for (Meal meal : meals) {
+            Integer position = positions.get(meal.getId());
+            if (position != null) {
+                favorites[position] = meal;
+            } else {
+                others.add(meal);
+            }
+        }
+        List<Meal> ordered = new ArrayList<>(meals.size());
+        for (Meal favorite : favorites) {
+            if (favorite != null) {
+                ordered.add(favorite);
+            }
+        }
+        ordered.addAll(others);
+        return ordered;
+    }
+
+    public void evict(int householdId) {
+        synchronized (households) {
+            households.remove(householdId);
+        }
+    }
+
+    public void invalidate() {
+        synchronized (households) {
+            households.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (households) {
+            return households.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private class HouseholdScores {
+        private final Map<String, CategoryScores> categories = new HashMap<>();
+        private final long today;
+
+        private HouseholdScores(long today) {
+            this.today = today;
+        }
+
+        private void add(Plan plan, int sign) {
+            long day = plan.getMealDate().toEpochDay();
+            if (day > today) {
+                return;
+            }
+            double weight = Math.pow(2, (day - today) / halfLifeDays);
+            categories.computeIfAbsent(plan.getMealCategory(), category -> new CategoryScores())
+                    .add(plan.getMealIdMeals(), sign * weight);
+        }
+    }
+
+    private class CategoryScores {
+        private final Map<Integer, Double> scores = new HashMap<>();
+        private int[] ranked;
+
+        private void add(int mealId, double weight) {
+            double score = scores.getOrDefault(mealId, 0.0) + weight;
+            if (score <= MIN_SCORE) {
+                scores.remove(mealId);
+            } else {
+                scores.put(mealId, score);
+            }
+            if (scores.size() > maxMealsPerCategory) {
+                scores.remove(leastScored());
+            }
+            ranked = null;
+        }
+
+        private int leastScored() {
+            int least = -1;
+            double leastScore = Double.MAX_VALUE;
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                if (entry.getValue() < leastScore) {
+                    least = entry.getKey();
+                    leastScore = entry.getValue();
+                }
+            }
+            return least;
+        }
+
+        private int[] ranked() {
+            if (ranked == null) {
+                ranked = scores.entrySet().stream()
+                        .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                                .thenComparing(Map.Entry.comparingByKey()))
+                        .mapToInt(Map.Entry::getKey)
+                        .toArray();
+            }
+            return ranked;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package mealplanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class MealSearchIndex {
+    private final IngredientDictionary dictionary;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, BitSet> mealsByCategory = new HashMap<>();
+    private final TrieNode names = new TrieNode();
+    private BitSet[] mealsByIngredient = new BitSet[64];
+    private Meal[] mealsById = new Meal[1024];
+    private final BitSet allMeals = new BitSet();
+
+    public MealSearchIndex(IngredientDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public static MealSearchIndex build(List<Meal> meals, IngredientDictionary dictionary) {
+        MealSearchIndex index = new MealSearchIndex(dictionary);
+        index.addAll(meals);
+        return index;
+    }
+
+    public void addAll(List<Meal> meals) {
+        lock.writeLock().lock();
+        try {
+            for (Meal meal : meals) {
+                insert(meal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Meal meal) {
+        lock.writeLock().lock();
+        try {
+            insert(meal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Meal meal) {
+        int id = meal.getId();
+        if (id >= mealsById.length) {
+            mealsById = Arrays.copyOf(mealsById, Math.max(id + 1, mealsById.length * 2));
+        }
+        if (mealsById[id] != null) {
+            return;
+        }
+        mealsById[id] = meal;
+        allMeals.set(id);
+        mealsByCategory.computeIfAbsent(meal.getCategory(), category -> new BitSet()).set(id);
+        for (int ingredientId : meal.getIngredientIds()) {
+            if (ingredientId >= mealsByIngredient.length) {
+                mealsByIngredient = Arrays.copyOf(mealsByIngredient,
+                        Math.max(ingredientId + 1, mealsByIngredient.length * 2));
+            }
+            if (mealsByIngredient[ingredientId] == null) {
+                mealsByIngredient[ingredientId] = new BitSet();
+            }
+            mealsByIngredient[ingredientId].set(id);
+        }
+        names.insert(meal.getName().toLowerCase(Locale.ROOT), id);
+    }
+
+    public List<Meal> search(MealQuery query) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = query.getCategory() == null
+                    ? (BitSet) allMeals.clone()
+                    : copyOf(mealsByCategory.get(query.getCategory()));
+
+            for (String ingredient : query.getContainsIngredients()) {
+                matches.and(copyOf(ingredientBitmap(ingredient)));
+                if (matches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            for (String ingredient : query.getExcludesIngredients()) {
+                BitSet excluded = ingredientBitmap(ingredient);
+                if (excluded != null) {
+                    matches.andNot(excluded);
+                }
+            }
+            if (query.getNamePrefix() != null) {
+                BitSet prefixed = new BitSet();
+                TrieNode node = names.find(query.getNamePrefix());
+                if (node != null) {
+                    node.collect(prefixed);
+                }
+                matches.and(prefixed);
+            }
+            if (query.getFuzzyName() != null) {
+                BitSet similar = new BitSet();
+                names.collectWithin(query.getFuzzyName(), query.getMaxEditDistance(), similar);
+                matches.and(similar);
+            }
+            return toMeals(matches, query.getLimit());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return allMeals.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet ingredientBitmap(String ingredient) {
+        int id = dictionary.find(ingredient);
+        if (id < 0) {
+            id = dictionary.find(ingredient.toLowerCase(Locale.ROOT));
+        }
+        return id >= 0 && id < mealsByIngredient.length ? mealsByIngredient[id] : null;
+    }
+
+    private List<Meal> toMeals(BitSet matches, int limit) {
+        List<Meal> meals = new ArrayList<>(matches.cardinality());
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            meals.add(mealsById[id]);
+        }
+        Collections.sort(meals);
+        return meals.size() <= limit ? meals : new ArrayList<>(meals.subList(0, limit));
+    }
+
+    private static BitSet copyOf(BitSet bitmap) {
+        return bitmap == null ? new BitSet() : (BitSet) bitmap.clone();
+    }
+
+    private static class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private int[] mealIds = new int[0];
+
+        private void insert(String name, int mealId) {
+            TrieNode node = this;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.childOrCreate(name.charAt(i));
+            }
+            node.mealIds = Arrays.copyOf(node.mealIds, node.mealIds.length + 1);
+            node.mealIds[node.mealIds.length - 1] = mealId;
+        }
+
+        private TrieNode childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            int insertAt = -position - 1;
+            TrieNode child = new TrieNode();
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int position = Arrays.binarySearch(node.keys, prefix.charAt(i));
+                node = position >= 0 ? node.children[position] : null;
+            }
+            return node;
+        }
+
+        private void collect(BitSet result) {
+            for (int mealId : mealIds) {
+                result.set(mealId);
+            }
+            for (TrieNode child : children) {
+                child.collect(result);
+            }
+        }
+
+        private void collectWithin(String target, int maxDistance, BitSet result) {
+            int[] row = new int[target.length() + 1];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = i;
+            }
+            if (row[target.length()] <= maxDistance) {
+                for (int mealId : mealIds) {
+                    result.set(mealId);
+                }
+            }
+            for (int i = 0; i < keys.length; i++) {
+                children[i].collectWithin(keys[i], row, target, maxDistance, result);
+            }
+        }
+
+        private void collectWithin(char key, int[] previous, String target, int maxDistance, BitSet result) {
+            int[] row = new int[previous.length];
+            row[0] = previous[0] + 1;
+            int best = row[0];
+            for (int i = 1; i < row.length; i++) {
+                int substitution = previous[i - 1] + (target.charAt(i - 1) == key ? 0 : 1);
+                row[i] = Math.min(substitution, Math.min(previous[i] + 1, row[i - 1] + 1));
+                best = Math.min(best, row[i]);
+            }
+            if (best > maxDistance) {
+                return;
+            }
+            if (row[row.length - 1] <= maxDistance) {
+                for (int mealId : mealIds) {
+                    result.set(mealId);
+                }
+            }
+            for (int i = 0; i < keys.length; i++) {
+                children[i].collectWithin(keys[i], row, target, maxDistance, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package mealplanner;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+public class MealServer implements AutoCloseable {
+    private static final int MAX_REQUEST_BYTES = 1 << 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CommandDispatcher dispatcher;
+
+    public MealServer(int port, CommandDispatcher dispatcher) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, dispatcher);
+    }
+
+    public MealServer(InetAddress address, int port, CommandDispatcher dispatcher) throws IOException {
+        this.dispatcher = dispatcher;
+        this.executor = VirtualThreads.newExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/commands", this::handleCommand);
+        server.createContext("/health", exchange -> respond(exchange, 200, "{\"ok\": true}"));
+        server.createContext("/metrics", exchange -> respond(exchange, 200, Metrics.toJson()));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleCommand(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, "{\"ok\": false, \"error\": \"Use POST\"}");
+            return;
+        }
+        byte[] request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = body.readNBytes(MAX_REQUEST_BYTES + 1);
+        }
+        if (request.length > MAX_REQUEST_BYTES) {
+            respond(exchange, 413, "{\"ok\": false, \"error\": \"Request body exceeds " + MAX_REQUEST_BYTES +
+                    " bytes\"}");
+            return;
+        }
+        String response = dispatcher.dispatch(new String(request, StandardCharsets.UTF_8));
+        respond(exchange, response.startsWith("{\"ok\": true") ? 200 : 400, response);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        dispatcher.close();
+    }
+}
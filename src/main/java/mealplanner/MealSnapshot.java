@@ -0,0 +1,188 @@
+package mealplanner;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MealSnapshot {
+    private static final int MAGIC = 0x4D504C53;
+    private static final int VERSION = 2;
+    private static final Unit[] UNITS = Unit.values();
+
+    public static void write(Path target, List<Meal> meals) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringTable = new ArrayList<>();
+        for (Meal meal : meals) {
+            index(meal.getCategory(), strings, stringTable);
+            for (String ingredient : meal.getIngredients()) {
+                index(ingredient, strings, stringTable);
+            }
+        }
+
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temporary = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeVarInt(out, stringTable.size());
+                for (String value : stringTable) {
+                    writeString(out, value);
+                }
+                writeVarInt(out, meals.size());
+                for (Meal meal : meals) {
+                    int[] ingredientIds = meal.getIngredientIds();
+                    writeVarInt(out, meal.getId());
+                    writeVarInt(out, strings.get(meal.getCategory()));
+                    writeString(out, meal.getName());
+                    writeVarInt(out, ingredientIds.length);
+                    for (int i = 0; i < ingredientIds.length; i++) {
+                        Unit unit = meal.getUnit(i);
+                        writeVarInt(out, strings.get(meal.getDictionary().name(ingredientIds[i])));
+                        out.writeByte(unit == null ? -1 : unit.ordinal());
+                        if (unit != null) {
+                            out.writeDouble(meal.getQuantity(i));
+                        }
+                    }
+                }
+                out.flush();
+                channel.force(false);
+            }
+            ShoppingListExporter.moveIntoPlace(temporary, absoluteTarget);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static List<Meal> read(Path source, IngredientDictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a meal snapshot: " + source);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported meal snapshot version " + version + ": " + source);
+            }
+            return readMeals(buffer, dictionary);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated meal snapshot: " + source, e);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt meal snapshot " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Meal> readMeals(ByteBuffer buffer, IngredientDictionary dictionary) {
+        String[] stringTable = new String[readCount(buffer)];
+        int[] ingredientIds = new int[stringTable.length];
+        for (int i = 0; i < stringTable.length; i++) {
+            stringTable[i] = readString(buffer);
+            ingredientIds[i] = -1;
+        }
+
+        int mealCount = readCount(buffer);
+        List<Meal> meals = new ArrayList<>(mealCount);
+        for (int m = 0; m < mealCount; m++) {
+            int id = readVarInt(buffer);
+            String category = stringTable[readIndex(buffer, stringTable.length)];
+            String name = readString(buffer);
+            int ingredientCount = readCount(buffer);
+            int[] ids = new int[ingredientCount];
+            double[] quantities = null;
+            Unit[] units = null;
+            for (int i = 0; i < ingredientCount; i++) {
+                int string = readIndex(buffer, stringTable.length);
+                if (ingredientIds[string] < 0) {
+                    ingredientIds[string] = dictionary.intern(stringTable[string]);
+                }
+                ids[i] = ingredientIds[string];
+                byte unit = buffer.get();
+                if (unit >= 0) {
+                    if (unit >= UNITS.length) {
+                        throw new IllegalArgumentException("unknown unit " + unit);
+                    }
+                    if (units == null) {
+                        quantities = new double[ingredientCount];
+                        units = new Unit[ingredientCount];
+                    }
+                    quantities[i] = buffer.getDouble();
+                    units[i] = UNITS[unit];
+                }
+            }
+            meals.add(new Meal(id, name, category, ids, quantities, units, dictionary));
+        }
+        return meals;
+    }
+
+    private static void index(String value, Map<String, Integer> strings, List<String> stringTable) {
+        if (!strings.containsKey(value)) {
+            strings.put(value, stringTable.size());
+            stringTable.add(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        int count = readVarInt(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("count " + count + " exceeds the remaining " + buffer.remaining() +
+                    " bytes");
+        }
+        return count;
+    }
+
+    private static int readIndex(ByteBuffer buffer, int size) {
+        int index = readVarInt(buffer);
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("string index " + index + " is outside a table of " + size);
+        }
+        return index;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readCount(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
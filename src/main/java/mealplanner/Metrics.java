@@ -0,0 +1,126 @@
+package mealplanner;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class Metrics {
+    private static final String DOMAIN = "mealplanner";
+    private static final Map<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private static volatile ConnectionPool pool;
+    private static volatile MealCatalog catalog;
+
+    public static OperationMetrics operation(String name) {
+        OperationMetrics metrics = operations.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        synchronized (operations) {
+            metrics = operations.get(name);
+            if (metrics == null) {
+                metrics = new OperationMetrics(name);
+                register("type=Operation,name=" + name, metrics);
+                operations.put(name, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    public static List<OperationMetrics> operations() {
+        return new ArrayList<>(operations.values());
+    }
+
+    public static void registerPool(ConnectionPool connectionPool) {
+        pool = connectionPool;
+        register("type=ConnectionPool", connectionPool);
+    }
+
+    public static void registerCatalog(MealCatalog mealCatalog) {
+        catalog = mealCatalog;
+        register("type=MealCatalog", mealCatalog);
+    }
+
+    private static void register(String properties, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Unable to register MBean " + properties + ": " + e.getMessage());
+        }
+    }
+
+    public static String toText() {
+        StringBuilder builder = new StringBuilder();
+        for (OperationMetrics metrics : operations.values()) {
+            builder.append(metrics).append('\n');
+        }
+        ConnectionPool currentPool = pool;
+        if (currentPool != null) {
+            builder.append(currentPool).append(String.format(Locale.ROOT, " p99AcquireMs=%.3f maxAcquireMs=%.3f%n",
+                    currentPool.getP99AcquireMillis(), currentPool.getMaxAcquireMillis()));
+        }
+        MealCatalog currentCatalog = catalog;
+        if (currentCatalog != null) {
+            builder.append(String.format(Locale.ROOT, "MealCatalog[size=%d, hits=%d, misses=%d, hitRate=%.3f]%n",
+                    currentCatalog.size(), currentCatalog.getHits(), currentCatalog.getMisses(),
+                    currentCatalog.getHitRate()));
+        }
+        return builder.toString();
+    }
+
+    public static String toJson() {
+        StringBuilder builder = new StringBuilder("{\"operations\": {");
+        boolean first = true;
+        for (OperationMetrics metrics : operations.values()) {
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(Json.quote(metrics.getName())).append(": ").append(metrics.toJson());
+        }
+        builder.append('}');
+        ConnectionPool currentPool = pool;
+        if (currentPool != null) {
+            builder.append(String.format(Locale.ROOT, ", \"pool\": {\"open\": %d, \"idle\": %d, \"active\": %d, " +
+                            "\"acquired\": %d, \"timeouts\": %d, \"avgAcquireMs\": %.3f, \"p99AcquireMs\": %.3f, " +
+                            "\"maxAcquireMs\": %.3f}",
+                    currentPool.getOpenConnections(), currentPool.getIdleConnections(),
+                    currentPool.getActiveConnections(), currentPool.getAcquiredCount(), currentPool.getTimeoutCount(),
+                    currentPool.getAverageAcquireMillis(), currentPool.getP99AcquireMillis(),
+                    currentPool.getMaxAcquireMillis()));
+        }
+        MealCatalog currentCatalog = catalog;
+        if (currentCatalog != null) {
+            builder.append(String.format(Locale.ROOT, ", \"catalog\": {\"size\": %d, \"hits\": %d, \"misses\": %d, " +
+                            "\"hitRate\": %.3f}",
+                    currentCatalog.size(), currentCatalog.getHits(), currentCatalog.getMisses(),
+                    currentCatalog.getHitRate()));
+        }
+        return builder.append('}').toString();
+    }
+
+    public static ScheduledExecutorService startReporter(PrintStream out, long periodSeconds, boolean json) {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.print(json ? toJson() + "\n" : toText()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return reporter;
+    }
+}
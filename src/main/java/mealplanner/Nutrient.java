@@ -0,0 +1,34 @@
+package mealplanner;
+
+public enum Nutrient {
+    CALORIES("calories", "kcal"),
+    PROTEIN("protein", "g"),
+    FAT("fat", "g"),
+    CARBOHYDRATES("carbohydrates", "g"),
+    PRICE("price", "");
+
+    private final String column;
+    private final String symbol;
+
+    Nutrient(String column, String symbol) {
+        this.column = column;
+        this.symbol = symbol;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public static Nutrient parse(String column) {
+        for (Nutrient nutrient : values()) {
+            if (nutrient.column.equalsIgnoreCase(column)) {
+                return nutrient;
+            }
+        }
+        return null;
+    }
+}
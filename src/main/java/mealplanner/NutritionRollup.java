@@ -0,0 +1,90 @@
+package mealplanner;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+public class NutritionRollup {
+    private final LocalDate from;
+    private final int days;
+    private final int[] householdIds;
+    private final double[][] householdTotals;
+    private final double[][] dailyTotals;
+    private final long planCount;
+    private final long incompletePlanCount;
+
+    NutritionRollup(LocalDate from, int days, int[] householdIds, double[][] householdTotals,
+                    double[][] dailyTotals, long planCount, long incompletePlanCount) {
+        this.from = from;
+        this.days = days;
+        this.householdIds = householdIds;
+        this.householdTotals = householdTotals;
+        this.dailyTotals = dailyTotals;
+        this.planCount = planCount;
+        this.incompletePlanCount = incompletePlanCount;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return from.plusDays(days - 1);
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public long getPlanCount() {
+        return planCount;
+    }
+
+    public long getIncompletePlanCount() {
+        return incompletePlanCount;
+    }
+
+    public int[] getHouseholdIds() {
+        return householdIds.clone();
+    }
+
+    public double total(Nutrient nutrient) {
+        double total = 0;
+        for (double value : dailyTotals[nutrient.ordinal()]) {
+            total += value;
+        }
+        return total;
+    }
+
+    public double day(Nutrient nutrient, LocalDate date) {
+        long day = ChronoUnit.DAYS.between(from, date);
+        return day < 0 || day >= days ? 0 : dailyTotals[nutrient.ordinal()][(int) day];
+    }
+
+    public double[] daily(Nutrient nutrient) {
+        return dailyTotals[nutrient.ordinal()].clone();
+    }
+
+    public LocalDate weekStart(int week) {
+        return MealCommands.weekStart(from).plusWeeks(week);
+    }
+
+    public double[] weekly(Nutrient nutrient) {
+        int offset = (int) ChronoUnit.DAYS.between(MealCommands.weekStart(from), from);
+        double[] weekly = new double[(offset + days + 6) / 7];
+        double[] daily = dailyTotals[nutrient.ordinal()];
+        for (int day = 0; day < days; day++) {
+            weekly[(offset + day) / 7] += daily[day];
+        }
+        return weekly;
+    }
+
+    public double household(Nutrient nutrient, int householdId) {
+        int household = Arrays.binarySearch(householdIds, householdId);
+        return household < 0 ? 0 : householdTotals[nutrient.ordinal()][household];
+    }
+
+    public double householdDailyAverage(Nutrient nutrient, int householdId) {
+        return household(nutrient, householdId) / days;
+    }
+}
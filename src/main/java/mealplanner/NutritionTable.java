@@ -0,0 +1,98 @@
+package mealplanner;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class NutritionTable {
+    private static final Nutrient[] NUTRIENTS = Nutrient.values();
+
+    private final IngredientDictionary dictionary;
+    private Unit.Dimension[] dimensions;
+    private double[][] columns;
+    private int size;
+
+    public NutritionTable(IngredientDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.dimensions = new Unit.Dimension[Math.max(16, dictionary.size())];
+        this.columns = new double[NUTRIENTS.length][dimensions.length];
+    }
+
+    void put(int ingredientId, Unit.Dimension dimension, double[] valuesPerBaseUnit) {
+        if (ingredientId >= dimensions.length) {
+            int capacity = Math.max(ingredientId + 1, dimensions.length * 2);
+            dimensions = Arrays.copyOf(dimensions, capacity);
+            for (int nutrient = 0; nutrient < columns.length; nutrient++) {
+                columns[nutrient] = Arrays.copyOf(columns[nutrient], capacity);
+            }
+        }
+        if (dimensions[ingredientId] == null) {
+            size++;
+        }
+        dimensions[ingredientId] = dimension;
+        for (int nutrient = 0; nutrient < columns.length; nutrient++) {
+            columns[nutrient][ingredientId] = valuesPerBaseUnit[nutrient];
+        }
+    }
+
+    public boolean has(int ingredientId) {
+        return ingredientId < dimensions.length && dimensions[ingredientId] != null;
+    }
+
+    public Unit.Dimension getDimension(int ingredientId) {
+        return ingredientId < dimensions.length ? dimensions[ingredientId] : null;
+    }
+
+    public double get(Nutrient nutrient, int ingredientId) {
+        return has(ingredientId) ? columns[nutrient.ordinal()][ingredientId] : 0;
+    }
+
+    public double get(Nutrient nutrient, String ingredient) {
+        int ingredientId = dictionary.find(ingredient);
+        return ingredientId < 0 ? 0 : get(nutrient, ingredientId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double[] mealTotals(Meal meal) {
+        double[] totals = new double[NUTRIENTS.length];
+        addMeal(meal, totals);
+        return totals;
+    }
+
+    public MealNutrition compile(Collection<Meal> meals) {
+        int capacity = 0;
+        for (Meal meal : meals) {
+            capacity = Math.max(capacity, meal.getId() + 1);
+        }
+        double[][] mealColumns = new double[NUTRIENTS.length][capacity];
+        boolean[] complete = new boolean[capacity];
+        double[] totals = new double[NUTRIENTS.length];
+        for (Meal meal : meals) {
+            Arrays.fill(totals, 0);
+            complete[meal.getId()] = addMeal(meal, totals);
+            for (int nutrient = 0; nutrient < totals.length; nutrient++) {
+                mealColumns[nutrient][meal.getId()] = totals[nutrient];
+            }
+        }
+        return new MealNutrition(mealColumns, complete);
+    }
+
+    private boolean addMeal(Meal meal, double[] totals) {
+        boolean complete = true;
+        int[] ingredientIds = meal.getIngredientIds();
+        for (int i = 0; i < ingredientIds.length; i++) {
+            int ingredientId = ingredientIds[i];
+            if (getDimension(ingredientId) != meal.getDimension(i)) {
+                complete = false;
+                continue;
+            }
+            double baseQuantity = meal.getBaseQuantity(i);
+            for (int nutrient = 0; nutrient < totals.length; nutrient++) {
+                totals[nutrient] += baseQuantity * columns[nutrient][ingredientId];
+            }
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,108 @@
+package mealplanner;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics implements OperationMetricsMBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long startNanos, boolean failed) {
+        latency.record(System.nanoTime() - startNanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public void addRetry() {
+        retries.increment();
+    }
+
+    public void addQueries(int count) {
+        queries.add(count);
+    }
+
+    public void addRows(long fetched, long returned) {
+        rowsFetched.add(fetched);
+        rowsReturned.add(returned);
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getRowsFetched() {
+        return rowsFetched.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxMillis();
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"calls\": %d, \"errors\": %d, \"retries\": %d, \"queries\": %d, " +
+                        "\"rowsFetched\": %d, \"rowsReturned\": %d, \"meanMs\": %.3f, \"p50Ms\": %.3f, " +
+                        "\"p99Ms\": %.3f, \"maxMs\": %.3f}",
+                getCalls(), getErrors(), getRetries(), getQueries(), getRowsFetched(), getRowsReturned(),
+                getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-24s calls=%d errors=%d retries=%d queries=%d rows=%d/%d " +
+                        "mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                name, getCalls(), getErrors(), getRetries(), getQueries(), getRowsFetched(), getRowsReturned(),
+                getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,24 @@
+package mealplanner;
+
+public interface OperationMetricsMBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRetries();
+
+    long getQueries();
+
+    long getRowsFetched();
+
+    long getRowsReturned();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -1,10 +1,20 @@
 package mealplanner;
 
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
 public class Plan {
+    public static final int DEFAULT_HOUSEHOLD = 0;
+    public static final int UNSAVED_VERSION = -1;
+
     private String mealOption;
     private String mealCategory;
     private int mealIdMeals;
     private String mealDay;
+    private int householdId = DEFAULT_HOUSEHOLD;
+    private LocalDate mealDate;
+    private int version = UNSAVED_VERSION;
 
     public Plan(String mealOption, String mealCategory, int mealIdMeals, String mealDay) {
         this.mealOption = mealOption;
@@ -13,6 +23,16 @@ public class Plan {
         this.mealDay = mealDay;
     }
 
+    public Plan(int householdId, LocalDate mealDate, String mealOption, String mealCategory, int mealIdMeals) {
+        this(mealOption, mealCategory, mealIdMeals, dayName(mealDate));
+        this.householdId = householdId;
+        this.mealDate = mealDate;
+    }
+
+    public static String dayName(LocalDate date) {
+        return date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+    }
+
     public String getMealOption() {
         return mealOption;
     }
@@ -32,4 +52,20 @@ public class Plan {
     public void setMealDay(String mealDay) {
         this.mealDay = mealDay;
     }
+
+    public int getHouseholdId() {
+        return householdId;
+    }
+
+    public LocalDate getMealDate() {
+        return mealDate;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
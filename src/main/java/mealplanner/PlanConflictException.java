@@ -0,0 +1,11 @@
+package mealplanner;
+
+import java.sql.SQLException;
+
+public class PlanConflictException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    public PlanConflictException(String message) {
+        super(message, "40001");
+    }
+}
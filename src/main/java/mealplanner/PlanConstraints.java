@@ -0,0 +1,85 @@
+package mealplanner;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class PlanConstraints {
+    private int noRepeatWithinDays = 0;
+    private int maxDistinctIngredients = Integer.MAX_VALUE;
+    private final Set<String> requiredIngredients = new HashSet<>();
+    private final Set<String> forbiddenIngredients = new HashSet<>();
+    private long seed = 0;
+    private long timeBudgetMillis = 1_000;
+    private int candidatesPerWeek = 256;
+
+    public int getNoRepeatWithinDays() {
+        return noRepeatWithinDays;
+    }
+
+    public PlanConstraints setNoRepeatWithinDays(int noRepeatWithinDays) {
+        this.noRepeatWithinDays = noRepeatWithinDays;
+        return this;
+    }
+
+    public int getMaxDistinctIngredients() {
+        return maxDistinctIngredients;
+    }
+
+    public PlanConstraints setMaxDistinctIngredients(int maxDistinctIngredients) {
+        this.maxDistinctIngredients = maxDistinctIngredients;
+        return this;
+    }
+
+    public Set<String> getRequiredIngredients() {
+        return requiredIngredients;
+    }
+
+    public PlanConstraints requireIngredient(String ingredient) {
+        requiredIngredients.add(normalize(ingredient));
+        return this;
+    }
+
+    public Set<String> getForbiddenIngredients() {
+        return forbiddenIngredients;
+    }
+
+    public PlanConstraints forbidIngredient(String ingredient) {
+        forbiddenIngredients.add(normalize(ingredient));
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public PlanConstraints setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    public PlanConstraints setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        return this;
+    }
+
+    public int getCandidatesPerWeek() {
+        return candidatesPerWeek;
+    }
+
+    public PlanConstraints setCandidatesPerWeek(int candidatesPerWeek) {
+        if (candidatesPerWeek < 1) {
+            throw new IllegalArgumentException("At least one candidate is required: " + candidatesPerWeek);
+        }
+        this.candidatesPerWeek = candidatesPerWeek;
+        return this;
+    }
+
+    static String normalize(String ingredient) {
+        return ingredient.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,280 @@
+package mealplanner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+public class PlanGenerator {
+    static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    static final String[] CATEGORIES = {"breakfast", "lunch", "dinner"};
+    private static final int SLOTS_PER_WEEK = DAYS.length * CATEGORIES.length;
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+    private static final int RANDOM_PICKS = 32;
+    private static final int NEVER_USED = Integer.MIN_VALUE / 2;
+
+    private final PlanConstraints constraints;
+    private final ForkJoinPool pool;
+    private final Meal[] meals;
+    private final int[][] mealIngredients;
+    private final int[][] mealsByCategory;
+    private final int[][] requiredMealsByCategory;
+    private final int[] requiredIngredients;
+
+    public PlanGenerator(List<Meal> catalog, PlanConstraints constraints) {
+        this(catalog, constraints, ForkJoinPool.commonPool());
+    }
+
+    public PlanGenerator(List<Meal> catalog, PlanConstraints constraints, ForkJoinPool pool) {
+        this.constraints = constraints;
+        this.pool = pool;
+
+        Map<String, Integer> ingredientIds = new HashMap<>();
+        List<Meal> allowedMeals = new ArrayList<>();
+        List<int[]> allowedIngredients = new ArrayList<>();
+        for (Meal meal : catalog) {
+            int[] ingredients = toIngredientIds(meal, ingredientIds);
+            if (ingredients != null) {
+                allowedMeals.add(meal);
+                allowedIngredients.add(ingredients);
+            }
+        }
+        this.meals = allowedMeals.toArray(new Meal[0]);
+        this.mealIngredients = allowedIngredients.toArray(new int[0][]);
+
+        this.requiredIngredients = new int[constraints.getRequiredIngredients().size()];
+        int next = 0;
+        for (String ingredient : constraints.getRequiredIngredients()) {
+            requiredIngredients[next++] = ingredientIds.getOrDefault(ingredient, -1);
+        }
+
+        this.mealsByCategory = new int[CATEGORIES.length][];
+        this.requiredMealsByCategory = new int[CATEGORIES.length][];
+        for (int category = 0; category < CATEGORIES.length; category++) {
+            List<Integer> all = new ArrayList<>();
+            List<Integer> required = new ArrayList<>();
+            for (int meal = 0; meal < meals.length; meal++) {
+                if (meals[meal].getCategory().equals(CATEGORIES[category])) {
+                    all.add(meal);
+                    if (coversRequired(meal)) {
+                        required.add(meal);
+                    }
+                }
+            }
+            mealsByCategory[category] = all.stream().mapToInt(Integer::intValue).toArray();
+            requiredMealsByCategory[category] = required.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private int[] toIngredientIds(Meal meal, Map<String, Integer> ingredientIds) {
+        String[] ingredients = meal.getIngredients();
+        int[] ids = new int[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            String ingredient = PlanConstraints.normalize(ingredients[i]);
+            if (constraints.getForbiddenIngredients().contains(ingredient)) {
+                return null;
+            }
+            ids[i] = ingredientIds.computeIfAbsent(ingredient, key -> ingredientIds.size());
+        }
+        return ids;
+    }
+
+    private boolean coversRequired(int meal) {
+        for (int ingredient : mealIngredients[meal]) {
+            for (int required : requiredIngredients) {
+                if (ingredient == required) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public List<Plan> generateWeek() {
+        return generateWeeks(1).get(0);
+    }
+
+    public List<List<Plan>> generateWeeks(int weeks) {
+        return generateWeeks(Plan.DEFAULT_HOUSEHOLD, null, weeks);
+    }
+
+    public List<List<Plan>> generateWeeks(int householdId, LocalDate firstDay, int weeks) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(constraints.getTimeBudgetMillis());
+        int[] lastUsedDay = new int[meals.length];
+        Arrays.fill(lastUsedDay, NEVER_USED);
+
+        List<List<Plan>> plans = new ArrayList<>(weeks);
+        for (int week = 0; week < weeks; week++) {
+            Candidate best = pool.invoke(new CandidateSearch(
+                    week, 0, constraints.getCandidatesPerWeek(), lastUsedDay, deadline));
+            if (best == null || best.missingRequired > 0) {
+                throw new IllegalStateException("No plan for week " + (week + 1) + " satisfies the constraints");
+            }
+
+            List<Plan> weekPlans = new ArrayList<>(SLOTS_PER_WEEK);
+            for (int slot = 0; slot < SLOTS_PER_WEEK; slot++) {
+                int day = week * DAYS.length + slot / CATEGORIES.length;
+                Meal meal = meals[best.slots[slot]];
+                String category = CATEGORIES[slot % CATEGORIES.length];
+                lastUsedDay[best.slots[slot]] = day;
+                if (firstDay != null) {
+                    weekPlans.add(new Plan(householdId, firstDay.plusDays(day), meal.getName(), category, meal.getId()));
+                } else {
+                    weekPlans.add(new Plan(meal.getName(), category, meal.getId(), DAYS[day % DAYS.length]));
+                }
+            }
+            plans.add(weekPlans);
+        }
+        return plans;
+    }
+
+    private Candidate buildCandidate(int week, int attempt, int[] history) {
+        SplittableRandom random = new SplittableRandom(
+                constraints.getSeed() * 0x9E3779B97F4A7C15L + week * 0xBF58476D1CE4E5B9L + attempt);
+        int[] lastUsedDay = history.clone();
+        BitSet usedIngredients = new BitSet();
+        BitSet coveredRequired = new BitSet(requiredIngredients.length);
+        int[] slots = new int[SLOTS_PER_WEEK];
+
+        for (int slot = 0; slot < SLOTS_PER_WEEK; slot++) {
+            int category = slot % CATEGORIES.length;
+            int day = week * DAYS.length + slot / CATEGORIES.length;
+            int meal = -1;
+            if (coveredRequired.cardinality() < requiredIngredients.length) {
+                meal = pick(requiredMealsByCategory[category], random, lastUsedDay, day, usedIngredients);
+            }
+            if (meal < 0) {
+                meal = pick(mealsByCategory[category], random, lastUsedDay, day, usedIngredients);
+            }
+            if (meal < 0) {
+                return null;
+            }
+
+            slots[slot] = meal;
+            lastUsedDay[meal] = day;
+            for (int ingredient : mealIngredients[meal]) {
+                usedIngredients.set(ingredient);
+                for (int required = 0; required < requiredIngredients.length; required++) {
+                    if (requiredIngredients[required] == ingredient) {
+                        coveredRequired.set(required);
+                    }
+                }
+            }
+        }
+        return new Candidate(slots, usedIngredients.cardinality(),
+                requiredIngredients.length - coveredRequired.cardinality(), attempt);
+    }
+
+    private int pick(int[] candidates, SplittableRandom random, int[] lastUsedDay, int day, BitSet usedIngredients) {
+        if (candidates.length == 0) {
+            return -1;
+        }
+        for (int i = 0; i < RANDOM_PICKS; i++) {
+            int meal = candidates[random.nextInt(candidates.length)];
+            if (isAllowed(meal, lastUsedDay, day, usedIngredients)) {
+                return meal;
+            }
+        }
+        int start = random.nextInt(candidates.length);
+        for (int i = 0; i < candidates.length; i++) {
+            int meal = candidates[(start + i) % candidates.length];
+            if (isAllowed(meal, lastUsedDay, day, usedIngredients)) {
+                return meal;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isAllowed(int meal, int[] lastUsedDay, int day, BitSet usedIngredients) {
+        if (day - lastUsedDay[meal] < constraints.getNoRepeatWithinDays()) {
+            return false;
+        }
+        int distinct = usedIngredients.cardinality();
+        for (int ingredient : mealIngredients[meal]) {
+            if (!usedIngredients.get(ingredient)) {
+                distinct++;
+            }
+        }
+        return distinct <= constraints.getMaxDistinctIngredients();
+    }
+
+    private static Candidate better(Candidate first, Candidate second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private class CandidateSearch extends RecursiveTask<Candidate> {
+        private static final long serialVersionUID = 1L;
+        private final int week;
+        private final int from;
+        private final int to;
+        private final int[] history;
+        private final long deadline;
+
+        private CandidateSearch(int week, int from, int to, int[] history, long deadline) {
+            this.week = week;
+            this.from = from;
+            this.to = to;
+            this.history = history;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                Candidate best = null;
+                for (int attempt = from; attempt < to; attempt++) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("Plan search for week " + (week + 1) + " exceeded the " +
+                                constraints.getTimeBudgetMillis() + " ms time budget; lower candidatesPerWeek " +
+                                "or raise the budget");
+                    }
+                    best = better(best, buildCandidate(week, attempt, history));
+                }
+                return best;
+            }
+            int middle = (from + to) >>> 1;
+            CandidateSearch left = new CandidateSearch(week, from, middle, history, deadline);
+            left.fork();
+            Candidate right = new CandidateSearch(week, middle, to, history, deadline).compute();
+            return better(left.join(), right);
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        private final int[] slots;
+        private final int distinctIngredients;
+        private final int missingRequired;
+        private final int attempt;
+
+        private Candidate(int[] slots, int distinctIngredients, int missingRequired, int attempt) {
+            this.slots = slots;
+            this.distinctIngredients = distinctIngredients;
+            this.missingRequired = missingRequired;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (missingRequired != other.missingRequired) {
+                return Integer.compare(missingRequired, other.missingRequired);
+            }
+            if (distinctIngredients != other.distinctIngredients) {
+                return Integer.compare(distinctIngredients, other.distinctIngredients);
+            }
+            return Integer.compare(attempt, other.attempt);
+        }
+    }
+}
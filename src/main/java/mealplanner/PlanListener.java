@@ -0,0 +1,6 @@
+package mealplanner;
+
+public interface PlanListener {
+
+    void planChanged(Plan previous, Plan current);
+}
@@ -0,0 +1,8 @@
+package mealplanner;
+
+import java.time.LocalDate;
+
+public interface PlannedMealSink {
+
+    void add(int householdId, LocalDate mealDate, int mealId);
+}
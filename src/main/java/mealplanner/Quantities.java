@@ -0,0 +1,14 @@
+package mealplanner;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+final class Quantities {
+
+    private Quantities() {
+    }
+
+    static String format(double quantity) {
+        return BigDecimal.valueOf(quantity).setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,180 @@
+package mealplanner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+public class SchemaMigrations {
+    private static final Set<String> UNDEFINED_TABLE_SQL_STATES = Set.of("42P01", "42S02", "42S04");
+    private static final long MIGRATION_LOCK_KEY = 0x6D65616C706C616EL;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create meals and plan tables",
+                    "CREATE TABLE IF NOT EXISTS meals (" +
+                            "meal_id SERIAL PRIMARY KEY," +
+                            "category VARCHAR," +
+                            "meal VARCHAR)",
+                    "CREATE TABLE IF NOT EXISTS plan (" +
+                            "plan_id SERIAL PRIMARY KEY," +
+                            "meal_day VARCHAR," +
+                            "meal_option VARCHAR," +
+                            "meal_category VARCHAR," +
+                            "meal_id_meals INTEGER REFERENCES meals (meal_id))"),
+            new Migration(2, "Normalize ingredients into ingredient_names and meal_ingredients",
+                    SchemaMigrations::normalizeIngredients),
+            new Migration(3, "Key plans by household and calendar date",
+                    "ALTER TABLE plan ADD COLUMN IF NOT EXISTS household_id INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE plan ADD COLUMN IF NOT EXISTS meal_date DATE"),
+            new Migration(4, "Store ingredient quantities and units",
+                    "ALTER TABLE meal_ingredients ADD COLUMN IF NOT EXISTS quantity DOUBLE PRECISION",
+                    "ALTER TABLE meal_ingredients ADD COLUMN IF NOT EXISTS unit VARCHAR"),
+            new Migration(5, "Index ingredient and category lookups",
+                    "CREATE INDEX IF NOT EXISTS meal_ingredients_ingredient_idx ON meal_ingredients (ingredient_name_id)",
+                    "CREATE INDEX IF NOT EXISTS meals_category_idx ON meals (category)"),
+            new Migration(6, "Versioned plan slots unique by household, date and category",
+                    "ALTER TABLE plan ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0",
+                    "DELETE FROM plan WHERE meal_date IS NOT NULL AND plan_id NOT IN (" +
+                            "SELECT MAX(plan_id) FROM plan WHERE meal_date IS NOT NULL " +
+                            "GROUP BY household_id, meal_date, meal_category)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS plan_slot_idx ON plan (household_id, meal_date, meal_category)",
+                    "DROP INDEX IF EXISTS plan_household_date_idx"),
+            new Migration(7, "Per-ingredient nutrition and price per base unit",
+                    "CREATE TABLE IF NOT EXISTS ingredient_nutrition (" +
+                            "ingredient_name_id INTEGER PRIMARY KEY REFERENCES ingredient_names (ingredient_name_id)," +
+                            "dimension VARCHAR NOT NULL," +
+                            "calories DOUBLE PRECISION NOT NULL DEFAULT 0," +
+                            "protein DOUBLE PRECISION NOT NULL DEFAULT 0," +
+                            "fat DOUBLE PRECISION NOT NULL DEFAULT 0," +
+                            "carbohydrates DOUBLE PRECISION NOT NULL DEFAULT 0," +
+                            "price DOUBLE PRECISION NOT NULL DEFAULT 0)")
+    );
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    public static int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        } catch (SQLException e) {
+            if (UNDEFINED_TABLE_SQL_STATES.contains(e.getSQLState())) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    public static int migrate(Connection connection) throws SQLException {
+        int current = currentVersion(connection);
+        if (current >= latestVersion()) {
+            return current;
+        }
+        return applyPending(connection);
+    }
+
+    // PostgreSQL runs the DDL below in this one transaction, serialized across processes by an advisory lock.
+    // H2 auto-commits DDL, so there a failed step can leave earlier statements applied, and only the class lock
+    // serializes concurrent starts (embedded H2 databases are single-process).
+    private static synchronized int applyPending(Connection connection) throws SQLException {
+        int current;
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            lockMigrations(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INTEGER PRIMARY KEY," +
+                        "description VARCHAR NOT NULL," +
+                        "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            }
+            current = currentVersion(connection);
+            try (PreparedStatement recordVersion = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version > current) {
+                        migration.step.apply(connection);
+                        recordVersion.setInt(1, migration.version);
+                        recordVersion.setString(2, migration.description);
+                        recordVersion.executeUpdate();
+                        current = migration.version;
+                    }
+                }
+            }
+            connection.commit();
+            return current;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void lockMigrations(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+            statement.setLong(1, MIGRATION_LOCK_KEY);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static void normalizeIngredients(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS ingredient_names (" +
+                    "ingredient_name_id SERIAL PRIMARY KEY," +
+                    "name VARCHAR NOT NULL UNIQUE)");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS meal_ingredients (" +
+                    "meal_id INTEGER NOT NULL REFERENCES meals (meal_id)," +
+                    "position INTEGER NOT NULL," +
+                    "ingredient_name_id INTEGER NOT NULL REFERENCES ingredient_names (ingredient_name_id)," +
+                    "PRIMARY KEY (meal_id, position))");
+
+            try (ResultSet legacyTable = connection.getMetaData().getTables(null, null, "ingredients", null)) {
+                if (!legacyTable.next()) {
+                    return;
+                }
+            }
+            statement.executeUpdate("INSERT INTO ingredient_names (name) " +
+                    "SELECT DISTINCT TRIM(ingredient) FROM ingredients i WHERE ingredient IS NOT NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM ingredient_names n WHERE n.name = TRIM(i.ingredient))");
+            statement.executeUpdate("INSERT INTO meal_ingredients (meal_id, position, ingredient_name_id) " +
+                    "SELECT i.meal_id, ROW_NUMBER() OVER (PARTITION BY i.meal_id ORDER BY i.ingredient_id) - 1, " +
+                    "n.ingredient_name_id FROM ingredients i " +
+                    "JOIN ingredient_names n ON n.name = TRIM(i.ingredient) WHERE i.meal_id IS NOT NULL");
+            statement.executeUpdate("DROP TABLE ingredients");
+        }
+    }
+
+    private interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        private Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        private Migration(int version, String description, String... statements) {
+            this(version, description, connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    for (String sql : statements) {
+                        statement.executeUpdate(sql);
+                    }
+                }
+            });
+        }
+    }
+}
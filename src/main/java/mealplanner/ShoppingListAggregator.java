@@ -0,0 +1,28 @@
+package mealplanner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class ShoppingListAggregator {
+
+    public static ShoppingListTotals aggregate(List<Plan> plans, IntFunction<Meal> meals,
+                                               IngredientDictionary dictionary) {
+        ShoppingListTotals totals = new ShoppingListTotals(dictionary);
+        for (Plan plan : plans) {
+            Meal meal = meals.apply(plan.getMealIdMeals());
+            if (meal != null) {
+                totals.add(meal);
+            }
+        }
+        return totals;
+    }
+
+    public static ShoppingListTotals aggregateParallel(Collection<? extends List<Plan>> partitions,
+                                                       IntFunction<Meal> meals, IngredientDictionary dictionary) {
+        return partitions.parallelStream()
+                .map(plans -> aggregate(plans, meals, dictionary))
+                .reduce(ShoppingListTotals::merge)
+                .orElseGet(() -> new ShoppingListTotals(dictionary));
+    }
+}
@@ -0,0 +1,66 @@
+package mealplanner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+public class ShoppingListExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static void export(Connection connection, Path target, ShoppingListFormat format)
+            throws SQLException, IOException {
+        export(target, format::newWriter,
+                shoppingListWriter -> DatabaseManager.streamShoppingList(connection, shoppingListWriter));
+    }
+
+    public static void export(Connection connection, int householdId, LocalDate from, LocalDate to, Path target,
+                              ShoppingListFormat format) throws SQLException, IOException {
+        export(target, format::newWriter, shoppingListWriter ->
+                DatabaseManager.streamShoppingList(connection, householdId, from, to, shoppingListWriter));
+    }
+
+    public static void export(Path target, Function<Writer, ShoppingListWriter> format, ShoppingListSource source)
+            throws SQLException, IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temporary = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                ShoppingListWriter shoppingListWriter = format.apply(writer);
+                shoppingListWriter.writeHeader();
+                source.streamTo(shoppingListWriter);
+                shoppingListWriter.writeFooter();
+                writer.flush();
+                channel.force(false);
+            }
+            moveIntoPlace(temporary, absoluteTarget);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public interface ShoppingListSource {
+        void streamTo(ShoppingListWriter shoppingListWriter) throws SQLException, IOException;
+    }
+
+    static void moveIntoPlace(Path temporary, Path target) throws IOException {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
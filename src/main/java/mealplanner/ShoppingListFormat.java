@@ -0,0 +1,118 @@
+package mealplanner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+public enum ShoppingListFormat {
+    TEXT {
+        @Override
+        public ShoppingListWriter newWriter(Writer writer) {
+            return new ShoppingListWriter() {
+                @Override
+                public void writeItem(String ingredient, long count) throws IOException {
+                    writer.write(count > 1 ? ingredient + " x" + count : ingredient);
+                    writer.write(System.lineSeparator());
+                }
+
+                @Override
+                public void writeQuantity(String ingredient, double quantity, Unit unit) throws IOException {
+                    writer.write(ingredient + " " + Quantities.format(quantity) + " " + unit.getSymbol());
+                    writer.write(System.lineSeparator());
+                }
+            };
+        }
+    },
+    CSV {
+        @Override
+        public ShoppingListWriter newWriter(Writer writer) {
+            return new ShoppingListWriter() {
+                @Override
+                public void writeHeader() throws IOException {
+                    writer.write("ingredient,quantity,unit\r\n");
+                }
+
+                @Override
+                public void writeItem(String ingredient, long count) throws IOException {
+                    writer.write(csvField(ingredient));
+                    writer.write(',');
+                    writer.write(Long.toString(count));
+                    writer.write(",\r\n");
+                }
+
+                @Override
+                public void writeQuantity(String ingredient, double quantity, Unit unit) throws IOException {
+                    writer.write(csvField(ingredient));
+                    writer.write(',');
+                    writer.write(Quantities.format(quantity));
+                    writer.write(',');
+                    writer.write(unit.getSymbol());
+                    writer.write("\r\n");
+                }
+            };
+        }
+    },
+    JSON {
+        @Override
+        public ShoppingListWriter newWriter(Writer writer) {
+            return new ShoppingListWriter() {
+                private boolean first = true;
+
+                @Override
+                public void writeHeader() throws IOException {
+                    writer.write('[');
+                }
+
+                @Override
+                public void writeItem(String ingredient, long count) throws IOException {
+                    startItem(ingredient);
+                    writer.write(", \"count\": ");
+                    writer.write(Long.toString(count));
+                    writer.write('}');
+                }
+
+                @Override
+                public void writeQuantity(String ingredient, double quantity, Unit unit) throws IOException {
+                    startItem(ingredient);
+                    writer.write(", \"quantity\": ");
+                    writer.write(Quantities.format(quantity));
+                    writer.write(", \"unit\": ");
+                    writer.write(Json.quote(unit.getSymbol()));
+                    writer.write('}');
+                }
+
+                private void startItem(String ingredient) throws IOException {
+                    writer.write(first ? "\n" : ",\n");
+                    first = false;
+                    writer.write("  {\"ingredient\": ");
+                    writer.write(Json.quote(ingredient));
+                }
+
+                @Override
+                public void writeFooter() throws IOException {
+                    writer.write(first ? "]\n" : "\n]\n");
+                }
+            };
+        }
+    };
+
+    public abstract ShoppingListWriter newWriter(Writer writer);
+
+    public static ShoppingListFormat forFileName(String filename) {
+        String lowerCaseName = filename.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lowerCaseName.endsWith(".json")) {
+            return JSON;
+        }
+        return TEXT;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,126 @@
+package mealplanner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ShoppingListTotals {
+    private static final Unit.Dimension[] DIMENSIONS = Unit.Dimension.values();
+    private static final int EMPTY = -1;
+
+    private final IngredientDictionary dictionary;
+    private int[] slots;
+    private double[] amounts;
+    private int size;
+
+    public ShoppingListTotals(IngredientDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.slots = new int[16];
+        this.amounts = new double[16];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    public void add(Meal meal) {
+        add(meal, 1);
+    }
+
+    public void add(Meal meal, int times) {
+        int[] ingredientIds = meal.getIngredientIds();
+        for (int i = 0; i < ingredientIds.length; i++) {
+            addAmount(ingredientIds[i] * DIMENSIONS.length + meal.getDimension(i).ordinal(),
+                    meal.getBaseQuantity(i) * times);
+        }
+    }
+
+    public ShoppingListTotals merge(ShoppingListTotals other) {
+        int[] otherSlots = other.slots;
+        double[] otherAmounts = other.amounts;
+        for (int i = 0; i < otherSlots.length; i++) {
+            if (otherSlots[i] != EMPTY) {
+                addAmount(otherSlots[i], otherAmounts[i]);
+            }
+        }
+        return this;
+    }
+
+    public double get(int ingredientId, Unit.Dimension dimension) {
+        int index = indexOf(ingredientId * DIMENSIONS.length + dimension.ordinal());
+        return slots[index] == EMPTY ? 0 : amounts[index];
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != EMPTY && amounts[i] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void writeTo(ShoppingListWriter writer) throws IOException {
+        List<Integer> used = new ArrayList<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != EMPTY && amounts[i] > 1e-9) {
+                used.add(slots[i]);
+            }
+        }
+        used.sort((first, second) -> {
+            int byName = dictionary.name(first / DIMENSIONS.length).compareTo(dictionary.name(second / DIMENSIONS.length));
+            return byName != 0 ? byName : Integer.compare(first, second);
+        });
+        for (int slot : used) {
+            writeSlot(writer, slot);
+        }
+    }
+
+    void writeSlot(ShoppingListWriter writer, int slot) throws IOException {
+        String ingredient = dictionary.name(slot / DIMENSIONS.length);
+        Unit.Dimension dimension = DIMENSIONS[slot % DIMENSIONS.length];
+        double amount = amounts[indexOf(slot)];
+        if (dimension == Unit.Dimension.COUNT && amount == Math.rint(amount)) {
+            writer.writeItem(ingredient, (long) amount);
+        } else {
+            Unit unit = Unit.displayUnit(dimension, amount);
+            writer.writeQuantity(ingredient, unit.fromBase(amount), unit);
+        }
+    }
+
+    private void addAmount(int slot, double amount) {
+        int index = indexOf(slot);
+        if (slots[index] == EMPTY) {
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+                index = indexOf(slot);
+            }
+            slots[index] = slot;
+            size++;
+        }
+        amounts[index] += amount;
+    }
+
+    private int indexOf(int slot) {
+        int mask = slots.length - 1;
+        int hash = slot * 0x9E3779B9;
+        int index = (hash ^ hash >>> 16) & mask;
+        while (slots[index] != EMPTY && slots[index] != slot) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        int[] oldSlots = slots;
+        double[] oldAmounts = amounts;
+        slots = new int[oldSlots.length * 2];
+        amounts = new double[oldSlots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                int index = indexOf(oldSlots[i]);
+                slots[index] = oldSlots[i];
+                amounts[index] = oldAmounts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package mealplanner;
+
+import java.io.IOException;
+
+public interface ShoppingListWriter {
+
+    default void writeHeader() throws IOException {
+    }
+
+    void writeItem(String ingredient, long count) throws IOException;
+
+    void writeQuantity(String ingredient, double quantity, Unit unit) throws IOException;
+
+    default void writeFooter() throws IOException {
+    }
+}
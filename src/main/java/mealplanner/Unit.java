@@ -0,0 +1,63 @@
+package mealplanner;
+
+import java.util.Locale;
+
+public enum Unit {
+    MG("mg", Dimension.MASS, 0.001),
+    G("g", Dimension.MASS, 1),
+    KG("kg", Dimension.MASS, 1000),
+    ML("ml", Dimension.VOLUME, 1),
+    L("l", Dimension.VOLUME, 1000),
+    PCS("pcs", Dimension.COUNT, 1);
+
+    public enum Dimension {
+        MASS, VOLUME, COUNT
+    }
+
+    private final String symbol;
+    private final Dimension dimension;
+    private final double baseFactor;
+
+    Unit(String symbol, Dimension dimension, double baseFactor) {
+        this.symbol = symbol;
+        this.dimension = dimension;
+        this.baseFactor = baseFactor;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    public double toBase(double quantity) {
+        return quantity * baseFactor;
+    }
+
+    public static Unit parse(String symbol) {
+        String lowerCaseSymbol = symbol.toLowerCase(Locale.ROOT);
+        for (Unit unit : values()) {
+            if (unit.symbol.equals(lowerCaseSymbol)) {
+                return unit;
+            }
+        }
+        return null;
+    }
+
+    public static Unit displayUnit(Dimension dimension, double baseQuantity) {
+        switch (dimension) {
+            case MASS:
+                return baseQuantity >= 1000 ? KG : G;
+            case VOLUME:
+                return baseQuantity >= 1000 ? L : ML;
+            default:
+                return PCS;
+        }
+    }
+
+    public double fromBase(double baseQuantity) {
+        return baseQuantity / baseFactor;
+    }
+}
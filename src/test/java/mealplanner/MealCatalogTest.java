@@ -0,0 +1,28 @@
+package mealplanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MealCatalogTest {
+
+    @Test
+    void mealsAlreadyInTheSnapshotAreNotAddedTwice() throws SQLException {
+        MealCatalog catalog = new MealCatalog();
+        Meal pasta = new Meal(1, "pasta", "dinner", new String[]{"pasta"});
+        Meal soup = new Meal(2, "soup", "dinner", new String[]{"carrot"});
+        catalog.load(List.of(pasta));
+
+        catalog.mealsAdded(List.of(pasta, soup));
+
+        assertEquals(List.of("pasta", "soup"), names(catalog.getMealsByCategory(null, "dinner")));
+        assertEquals(2, catalog.size());
+    }
+
+    private static List<String> names(List<Meal> meals) {
+        return meals.stream().map(Meal::getName).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package mealplanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MealNutritionTest {
+    private static final LocalDate FROM = LocalDate.of(2026, 10, 19);
+    private static final LocalDate TO = LocalDate.of(2026, 10, 25);
+
+    @Test
+    void streamedRollupMatchesRollupOfLoadedPlans() {
+        int nutrients = Nutrient.values().length;
+        double[][] columns = new double[nutrients][4];
+        for (int nutrient = 0; nutrient < nutrients; nutrient++) {
+            for (int meal = 0; meal < 4; meal++) {
+                columns[nutrient][meal] = (nutrient + 1) * 10 + meal;
+            }
+        }
+        MealNutrition mealNutrition = new MealNutrition(columns, new boolean[]{true, true, false, true});
+
+        Map<Integer, List<Plan>> plansByHousehold = new HashMap<>();
+        MealNutrition.Rollup streamed = mealNutrition.newRollup(FROM, TO);
+        for (int household : new int[]{7, 3, 12}) {
+            for (int day = -1; day < 9; day++) {
+                LocalDate date = FROM.plusDays(day);
+                int mealId = (household + day + 5) % 6;
+                plansByHousehold.computeIfAbsent(household, id -> new ArrayList<>())
+                        .add(new Plan(household, date, "meal", "dinner", mealId));
+                streamed.add(household, date, mealId);
+            }
+        }
+
+        NutritionRollup expected = mealNutrition.rollup(plansByHousehold, FROM, TO);
+        NutritionRollup actual = streamed.build();
+
+        assertArrayEquals(new int[]{3, 7, 12}, actual.getHouseholdIds());
+        assertEquals(expected.getPlanCount(), actual.getPlanCount());
+        assertEquals(expected.getIncompletePlanCount(), actual.getIncompletePlanCount());
+        for (Nutrient nutrient : Nutrient.values()) {
+            assertArrayEquals(expected.daily(nutrient), actual.daily(nutrient));
+            for (int household : expected.getHouseholdIds()) {
+                assertEquals(expected.household(nutrient, household), actual.household(nutrient, household));
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package mealplanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MealRecommendationsTest {
+    private static final int HOUSEHOLD = 1;
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+    private static final int OLD_FAVORITE = 1;
+    private static final int RECENT = 2;
+    private static final int FREQUENT = 3;
+    private static final int PLANNED_AHEAD = 4;
+
+    @Test
+    void ranksRecentAndFrequentMealsAboveOldAndFuturePlans() {
+        List<Plan> history = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            history.add(dinner(OLD_FAVORITE, TODAY.minusDays(120 + i)));
+        }
+        history.add(dinner(RECENT, TODAY.minusDays(5)));
+        history.add(dinner(FREQUENT, TODAY.minusDays(6)));
+        history.add(dinner(FREQUENT, TODAY.minusDays(7)));
+        history.add(dinner(PLANNED_AHEAD, TODAY.plusDays(300)));
+
+        MealRecommendations recommendations = new MealRecommendations(16, 64, 28);
+        recommendations.materialize(HOUSEHOLD, TODAY, history);
+
+        assertArrayEquals(new int[]{FREQUENT, RECENT, OLD_FAVORITE},
+                recommendations.ranked(HOUSEHOLD, "dinner", 10));
+    }
+
+    @Test
+    void ignoresIncrementalPlansAfterToday() {
+        MealRecommendations recommendations = new MealRecommendations(16, 64, 28);
+        recommendations.materialize(HOUSEHOLD, TODAY, List.of(dinner(RECENT, TODAY.minusDays(1))));
+
+        recommendations.planChanged(null, dinner(PLANNED_AHEAD, TODAY.plusDays(300)));
+        recommendations.planChanged(null, dinner(FREQUENT, TODAY));
+
+        assertArrayEquals(new int[]{FREQUENT, RECENT}, recommendations.ranked(HOUSEHOLD, "dinner", 10));
+    }
+
+    @Test
+    void rematerializesOnANewDay() {
+        MealRecommendations recommendations = new MealRecommendations(16, 64, 28);
+        recommendations.materialize(HOUSEHOLD, TODAY, List.of());
+
+        assertTrue(recommendations.isMaterialized(HOUSEHOLD, TODAY));
+        assertFalse(recommendations.isMaterialized(HOUSEHOLD, TODAY.plusDays(1)));
+    }
+
+    private static Plan dinner(int mealId, LocalDate date) {
+        return new Plan(HOUSEHOLD, date, "meal " + mealId, "dinner", mealId);
+    }
+}
@@ -0,0 +1,29 @@
+package mealplanner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MealSearchIndexTest {
+
+    @Test
+    void limitKeepsTheFirstMatchesByName() {
+        IngredientDictionary dictionary = new IngredientDictionary();
+        MealSearchIndex index = MealSearchIndex.build(List.of(
+                meal(1, "zucchini bake", dictionary),
+                meal(2, "yam stew", dictionary),
+                meal(3, "apple pie", dictionary),
+                meal(4, "bean soup", dictionary),
+                meal(5, "carrot cake", dictionary)), dictionary);
+
+        List<Meal> meals = index.search(new MealQuery().setCategory("dinner").setLimit(2));
+
+        assertEquals(List.of("apple pie", "bean soup"), meals.stream().map(Meal::getName).toList());
+    }
+
+    private static Meal meal(int id, String name, IngredientDictionary dictionary) {
+        return new Meal(id, name, "dinner", new int[]{dictionary.intern("salt")}, dictionary);
+    }
+}
@@ -0,0 +1,110 @@
+package mealplanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlanSlotConcurrencyTest {
+    private static final int PLANNERS = 256;
+    private static final int WRITES_PER_PLANNER = 20;
+    private static final int POOL_SIZE = 32;
+    private static final int HOUSEHOLDS = 2;
+    private static final int DAYS = 2;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final String[] CATEGORIES = {"breakfast", "lunch", "dinner"};
+
+    private ConnectionPool pool;
+    private int[] mealIds;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DatabaseConfig config = DatabaseConfig.embedded("plan_slots_" + System.nanoTime());
+        config.setMaxPoolSize(POOL_SIZE);
+        config.setAcquireTimeoutMillis(60_000);
+        pool = new ConnectionPool(config);
+        DatabaseManager.setDataSource(pool);
+        DatabaseManager.createTables();
+        mealIds = new int[CATEGORIES.length];
+        try (Connection connection = pool.getConnection()) {
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                mealIds[i] = DatabaseManager.addMeal(connection, CATEGORIES[i], CATEGORIES[i] + " meal",
+                        new String[]{"eggs 2"});
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            DatabaseManager.setDataSource(null);
+            statement.execute("SHUTDOWN");
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void concurrentReplacementsKeepOneRowPerSlot() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int planner = 0; planner < PLANNERS; planner++) {
+                long seed = planner;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return replaceSlots(new SplittableRandom(seed));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT household_id, meal_date, meal_category, " +
+                     "COUNT(*) AS slot_rows, SUM(version + 1) AS applied_writes FROM plan " +
+                     "GROUP BY household_id, meal_date, meal_category")) {
+            int slots = 0;
+            long appliedWrites = 0;
+            while (resultSet.next()) {
+                assertEquals(1, resultSet.getInt("slot_rows"), "rows for household " +
+                        resultSet.getInt("household_id") + ", " + resultSet.getDate("meal_date") + " " +
+                        resultSet.getString("meal_category"));
+                slots++;
+                appliedWrites += resultSet.getLong("applied_writes");
+            }
+            assertEquals(HOUSEHOLDS * DAYS * CATEGORIES.length, slots);
+            assertEquals((long) PLANNERS * WRITES_PER_PLANNER, appliedWrites);
+        }
+    }
+
+    private Void replaceSlots(SplittableRandom random) throws SQLException {
+        for (int write = 0; write < WRITES_PER_PLANNER; write++) {
+            int category = write % CATEGORIES.length;
+            Plan plan = new Plan(random.nextInt(HOUSEHOLDS), FIRST_DAY.plusDays(random.nextInt(DAYS)),
+                    CATEGORIES[category] + " meal", CATEGORIES[category], mealIds[category]);
+            try (Connection connection = pool.getConnection()) {
+                DatabaseManager.replacePlanSlot(connection, plan);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package mealplanner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SchemaMigrationsTest {
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DatabaseConfig config = DatabaseConfig.embedded("migrations_" + System.nanoTime());
+        connection = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection ignored = connection; Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void migratesAnEmptyDatabaseOnce() throws SQLException {
+        assertEquals(0, SchemaMigrations.currentVersion(connection));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.migrate(connection));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.migrate(connection));
+
+        assertEquals(SchemaMigrations.latestVersion(), count("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.currentVersion(connection));
+    }
+
+    @Test
+    void deduplicatesPlanSlotsFromTheBaselineSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE meals (meal_id SERIAL PRIMARY KEY, category VARCHAR, meal VARCHAR)");
+            statement.executeUpdate("CREATE TABLE plan (plan_id SERIAL PRIMARY KEY, meal_day VARCHAR, " +
+                    "meal_option VARCHAR, meal_category VARCHAR, meal_id_meals INTEGER REFERENCES meals (meal_id), " +
+                    "household_id INTEGER NOT NULL DEFAULT 0, meal_date DATE)");
+            statement.executeUpdate("CREATE TABLE ingredient_names (ingredient_name_id SERIAL PRIMARY KEY, " +
+                    "name VARCHAR NOT NULL UNIQUE)");
+            statement.executeUpdate("CREATE TABLE meal_ingredients (" +
+                    "meal_id INTEGER NOT NULL REFERENCES meals (meal_id), position INTEGER NOT NULL, " +
+                    "ingredient_name_id INTEGER NOT NULL REFERENCES ingredient_names (ingredient_name_id), " +
+                    "quantity DOUBLE PRECISION, unit VARCHAR, PRIMARY KEY (meal_id, position))");
+            statement.executeUpdate("CREATE TABLE schema_version (version INTEGER PRIMARY KEY, " +
+                    "description VARCHAR NOT NULL, applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            for (int version = 1; version <= 5; version++) {
+                statement.executeUpdate("INSERT INTO schema_version (version, description) VALUES (" + version +
+                        ", 'baseline')");
+            }
+
+            statement.executeUpdate("INSERT INTO meals (category, meal) VALUES " +
+                    "('dinner', 'pasta'), ('dinner', 'soup')");
+            statement.executeUpdate("INSERT INTO plan (meal_day, meal_option, meal_category, meal_id_meals, " +
+                    "household_id, meal_date) VALUES " +
+                    "('Monday', 'pasta', 'dinner', 1, 1, DATE '2024-01-01'), " +
+                    "('Monday', 'soup', 'dinner', 2, 1, DATE '2024-01-01'), " +
+                    "('Monday', 'pasta', 'dinner', 1, 2, DATE '2024-01-01'), " +
+                    "('Tuesday', 'pasta', 'dinner', 1, 1, DATE '2024-01-02'), " +
+                    "('Tuesday', 'soup', 'dinner', 2, 1, DATE '2024-01-02'), " +
+                    "('Tuesday', 'pasta', 'dinner', 1, 1, DATE '2024-01-02'), " +
+                    "('Monday', 'soup', 'dinner', 2, 0, NULL), " +
+                    "('Monday', 'pasta', 'dinner', 1, 0, NULL)");
+        }
+
+        assertEquals(5, SchemaMigrations.currentVersion(connection));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.migrate(connection));
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.migrate(connection));
+
+        assertEquals(List.of("1 2024-01-01 soup", "1 2024-01-02 pasta", "2 2024-01-01 pasta"), datedSlots());
+        assertEquals(2, count("SELECT COUNT(*) FROM plan WHERE meal_date IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM plan WHERE version <> 0"));
+
+        SQLException duplicate = assertThrows(SQLException.class, () -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO plan (meal_day, meal_option, meal_category, meal_id_meals, " +
+                        "household_id, meal_date) VALUES ('Monday', 'pasta', 'dinner', 1, 1, DATE '2024-01-01')");
+            }
+        });
+        assertEquals("23505", duplicate.getSQLState());
+    }
+
+    private List<String> datedSlots() throws SQLException {
+        List<String> slots = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT household_id, meal_date, meal_option FROM plan " +
+                     "WHERE meal_date IS NOT NULL ORDER BY household_id, meal_date")) {
+            while (resultSet.next()) {
+                slots.add(resultSet.getInt("household_id") + " " + resultSet.getDate("meal_date") + " " +
+                        resultSet.getString("meal_option"));
+            }
+        }
+        return slots;
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}